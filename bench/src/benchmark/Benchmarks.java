@@ -0,0 +1,34 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Benchmarks class : runs the benchmarks with the allocation profiler (steady state ns/op & allocation rate)
+ * The first argument filters the benchmarks (regular expression, all of them by default).
+ * @author Julian DEGUT
+ */
+public class Benchmarks {
+
+	/**
+	 * Main method
+	 * @param args (optional filter)
+	 * @throws RunnerException
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(args.length > 0 ? args[0] : "benchmark\\..*Benchmark")
+				.addProfiler(GCProfiler.class)
+				.warmupIterations(5)
+				.warmupTime(TimeValue.seconds(1))
+				.measurementIterations(5)
+				.measurementTime(TimeValue.seconds(1))
+				.forks(1)
+				.build();
+		new Runner(options).run();
+	}
+}
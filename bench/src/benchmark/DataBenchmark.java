@@ -0,0 +1,34 @@
+package benchmark;
+
+import data.Data;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataBenchmark class : loading of an instance (parsing, distance matrix & candidate lists)
+ * @author Julian DEGUT
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DataBenchmark {
+
+	@Param({"data101", "data201", "data1101", "data1201"})
+	public String instance;
+
+	/**
+	 * Load the instance file
+	 * @return data
+	 */
+	@Benchmark
+	public Data load() {
+		return new Data(InstanceState.getPath(instance));
+	}
+}
@@ -0,0 +1,46 @@
+package benchmark;
+
+import algorithm.construction.SolomonInsertion;
+import data.Data;
+import model.Solution;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.File;
+import java.util.SplittableRandom;
+
+/**
+ * InstanceState class : instance shared by the benchmarks (data & a feasible solution built by insertion)
+ * The instances are read in the directory given by the "vrptw.data" property (./Data by default).
+ * @author Julian DEGUT
+ */
+@State(Scope.Benchmark)
+public class InstanceState {
+
+	@Param({"data101", "data201", "data1101", "data1201"})
+	public String instance;
+
+	public Data data;
+	public Solution solution;
+
+	/**
+	 * Load the instance & build the solution
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		data = new Data(getPath(instance));
+		solution = new SolomonInsertion().build(data, new SplittableRandom(1));
+	}
+
+	/**
+	 * Get the path of an instance file
+	 * @param instance (name without extension)
+	 * @return path
+	 */
+	static String getPath(String instance) {
+		return new File(System.getProperty("vrptw.data", "Data"), instance + ".vrp").getPath();
+	}
+}
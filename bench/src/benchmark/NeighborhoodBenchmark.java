@@ -0,0 +1,65 @@
+package benchmark;
+
+import algorithm.HillClimbing;
+import model.Neighbor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NeighborhoodBenchmark class : parallel generation of the neighborhood with pools of several sizes
+ * @author Julian DEGUT
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NeighborhoodBenchmark {
+
+	@Param({"1", "2", "4", "8"})
+	public int threads;
+
+	@Param({"250"})
+	public int maxNeighbors;
+
+	private ForkJoinPool pool;
+	private HillClimbing algorithm;
+
+	/**
+	 * Create the pool & the algorithm using it
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		pool = new ForkJoinPool(threads);
+		algorithm = new HillClimbing(maxNeighbors, 1);
+		algorithm.setPool(pool);
+	}
+
+	/**
+	 * Shut the pool down
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Generate the neighborhood of the solution
+	 * @param state
+	 * @return neighborhood
+	 */
+	@Benchmark
+	public ArrayList<Neighbor> getNeighborhood(InstanceState state) {
+		return algorithm.getNeighborhood(state.solution, maxNeighbors);
+	}
+}
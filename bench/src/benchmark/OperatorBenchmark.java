@@ -0,0 +1,74 @@
+package benchmark;
+
+import algorithm.operator.CrossExchange;
+import algorithm.operator.Exchange;
+import algorithm.operator.Operator;
+import algorithm.operator.OperatorType;
+import algorithm.operator.OrOpt;
+import algorithm.operator.Relocate;
+import algorithm.operator.Reverse;
+import algorithm.operator.TwoOpt;
+import algorithm.operator.TwoOptStar;
+import model.Neighbor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OperatorBenchmark class : random scan of each operator (plain or granular) on the solution of the instance
+ * @author Julian DEGUT
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OperatorBenchmark {
+
+	@Param({"CrossExchange", "ExchangeInter", "ExchangeIntra", "RelocateInter", "RelocateIntra", "Reverse", "TwoOpt", "TwoOptStar", "OrOptInter", "OrOptIntra"})
+	public String operatorName;
+
+	@Param({"false", "true"})
+	public boolean granular;
+
+	private Operator operator;
+	private SplittableRandom random;
+
+	/**
+	 * Create the operator & the generator
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		operator = switch(operatorName) {
+			case "CrossExchange" -> new CrossExchange();
+			case "ExchangeInter" -> new Exchange(OperatorType.INTER);
+			case "ExchangeIntra" -> new Exchange(OperatorType.INTRA);
+			case "RelocateInter" -> new Relocate(OperatorType.INTER);
+			case "RelocateIntra" -> new Relocate(OperatorType.INTRA);
+			case "Reverse" -> new Reverse();
+			case "TwoOpt" -> new TwoOpt();
+			case "TwoOptStar" -> new TwoOptStar();
+			case "OrOptInter" -> new OrOpt(OperatorType.INTER);
+			case "OrOptIntra" -> new OrOpt(OperatorType.INTRA);
+			default -> throw new IllegalArgumentException("Unknown operator " + operatorName);
+		};
+		random = new SplittableRandom(1);
+	}
+
+	/**
+	 * Draw & evaluate a random move
+	 * @param state
+	 * @return neighbor (null if the move is infeasible)
+	 */
+	@Benchmark
+	public Neighbor scan(InstanceState state) {
+		return operator.scan(state.solution, random, granular);
+	}
+}
@@ -0,0 +1,38 @@
+package benchmark;
+
+import model.Solution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SolutionBenchmark class : total distance & copy of a solution
+ * @author Julian DEGUT
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SolutionBenchmark {
+
+	/**
+	 * Get the total distance
+	 * @param state
+	 * @return distance
+	 */
+	@Benchmark
+	public double getTotalDistance(InstanceState state) {
+		return state.solution.getTotalDistance();
+	}
+
+	/**
+	 * Copy the solution
+	 * @param state
+	 * @return copy
+	 */
+	@Benchmark
+	public Solution copy(InstanceState state) {
+		return state.solution.copy();
+	}
+}
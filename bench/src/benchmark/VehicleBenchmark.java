@@ -0,0 +1,61 @@
+package benchmark;
+
+import model.Vehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VehicleBenchmark class : construction (forward & backward data) & validation of all the routes of a solution
+ * @author Julian DEGUT
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class VehicleBenchmark {
+
+	private int[][] routes;
+
+	/**
+	 * Copy the routes of the solution
+	 * @param state
+	 */
+	@Setup(Level.Trial)
+	public void setup(InstanceState state) {
+		routes = state.solution.getVehicles().stream().map(Vehicle::toArray).toArray(int[][]::new);
+	}
+
+	/**
+	 * Build a vehicle for each route
+	 * @param state
+	 * @param blackhole
+	 */
+	@Benchmark
+	public void construct(InstanceState state, Blackhole blackhole) {
+		for(int[] route : routes)
+			blackhole.consume(new Vehicle(state.data, route));
+	}
+
+	/**
+	 * Check the constraints of each vehicle
+	 * @param state
+	 * @return number of valid vehicles
+	 */
+	@Benchmark
+	public int validate(InstanceState state) {
+		int valid = 0;
+		for(Vehicle vehicle : state.solution.getVehicles()) {
+			if(vehicle.isValid())
+				valid++;
+		}
+		return valid;
+	}
+}
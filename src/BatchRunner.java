@@ -0,0 +1,136 @@
+import algorithm.*;
+import algorithm.construction.*;
+import data.Data;
+import model.Solution;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.LongFunction;
+
+/**
+ * BatchRunner class : solves every instance of a directory with each algorithm & several seeds, without any view,
+ * and writes a CSV report (one line per run)
+ * <p>
+ * The runs are executed concurrently on a bounded pool, each one on a single thread (its neighborhoods
+ * are generated on its own pool of one thread) so the times of the runs can be compared. A run stops after
+ * its time budget or its own iteration limits. The seeds are the same for all the instances & algorithms.
+ * <p>
+ * Arguments (all optional) : directory (./Data), number of seeds (3), budget per run in milliseconds (10000),
+ * number of concurrent runs (number of cores), output file (results.csv), base seed (0)
+ * @author Julian DEGUT
+ */
+public class BatchRunner {
+
+	private static final int MAX_ITERATIONS = 10000;
+	private static final int MAX_NEIGHBORS = 250;
+	private static final InitialSolutionBuilder BUILDER = new RandomBuilder();
+	private static final String HEADER = "instance,algorithm,seed,distance,vehicles,time_to_best_ms,total_time_ms,evaluations_per_s";
+
+	/**
+	 * Main method : run the batch
+	 * @param args (directory, seeds, budget, threads, output, base seed)
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		File directory = new File(args.length > 0 ? args[0] : "./Data");
+		int nbSeeds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+		long budget = args.length > 2 ? Long.parseLong(args[2]) : 10000;
+		int nbThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+		File output = new File(args.length > 4 ? args[4] : "results.csv");
+		long baseSeed = args.length > 5 ? Long.parseLong(args[5]) : 0;
+
+		File[] files = directory.listFiles((dir, name) -> name.endsWith(".vrp"));
+		if(files == null || files.length == 0)
+			throw new IllegalArgumentException("No instance found in " + directory);
+		Arrays.sort(files);
+		long[] seeds = new long[nbSeeds];
+		SplittableRandom random = new SplittableRandom(baseSeed);
+		for(int i = 0; i < nbSeeds; i++)
+			seeds[i] = random.nextLong();
+
+		ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+		List<Future<String>> runs = new ArrayList<>();
+		for(File file : files) {
+			Data data = new Data(file.getPath());
+			String instance = file.getName().substring(0, file.getName().length() - 4);
+			for(Map.Entry<String, LongFunction<VRPTW>> algorithm : getAlgorithms().entrySet()) {
+				for(long seed : seeds)
+					runs.add(executor.submit(() -> run(data, instance, algorithm.getKey(), algorithm.getValue(), seed, budget)));
+			}
+		}
+		System.out.println(runs.size() + " runs on " + files.length + " instances, " + nbThreads + " at a time");
+		try(PrintWriter writer = new PrintWriter(output)) {
+			writer.println(HEADER);
+			for(Future<String> run : runs) {
+				String line = run.get();
+				writer.println(line);
+				writer.flush();
+				System.out.println(line);
+			}
+		} catch(ExecutionException e) {
+			throw new RuntimeException("A run failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		System.out.println("Report written to " + output.getPath());
+	}
+
+	/**
+	 * Get the algorithms of the batch (created from a run seed, with the parameters of the Main class)
+	 * @return algorithms by name
+	 */
+	private static Map<String, LongFunction<VRPTW>> getAlgorithms() {
+		Map<String, LongFunction<VRPTW>> algorithms = new LinkedHashMap<>();
+		algorithms.put("Randomizer", s -> new Randomizer(MAX_ITERATIONS, s));
+		algorithms.put("HillClimbing", s -> new HillClimbing(MAX_NEIGHBORS, s));
+		algorithms.put("Tabu", s -> new Tabu(10, MAX_ITERATIONS, MAX_NEIGHBORS, s));
+		algorithms.put("SimulatedAnnealing", s -> new SimulatedAnnealing(0.01, MAX_ITERATIONS, 0.9, s));
+		algorithms.put("ParallelTempering", s -> new ParallelTempering(8, 0.01, MAX_ITERATIONS, 100, s));
+		algorithms.put("ALNS", s -> new ALNS(MAX_ITERATIONS, s));
+		algorithms.put("RouteMinimization", s -> new RouteMinimization(MAX_ITERATIONS, s));
+		algorithms.put("HybridGeneticSearch", s -> new HybridGeneticSearch(100, s));
+		return algorithms;
+	}
+
+	/**
+	 * Run an algorithm on an instance
+	 * @param data
+	 * @param instance (name)
+	 * @param name (of the algorithm)
+	 * @param factory (of the algorithm)
+	 * @param seed (run seed)
+	 * @param budget (milliseconds)
+	 * @return CSV line
+	 */
+	private static String run(Data data, String instance, String name, LongFunction<VRPTW> factory, long seed, long budget) {
+		SplittableRandom seeds = new SplittableRandom(seed);
+		Solution solution = BUILDER.build(data, seeds.split());
+		VRPTW algorithm = factory.apply(seeds.nextLong());
+		ForkJoinPool pool = new ForkJoinPool(1);
+		algorithm.setPool(pool);
+		Termination termination = new Termination(budget, Termination.UNLIMITED, Termination.UNLIMITED);
+		long[] timeToBest = new long[1];
+		termination.addListener((best, elapsedTime, evaluations) -> timeToBest[0] = elapsedTime);
+		try {
+			solution = algorithm.search(solution, termination);
+		} finally {
+			pool.shutdown();
+		}
+		long totalTime = termination.getElapsedTime();
+		double evaluationsPerSecond = termination.getEvaluations() * 1000.0 / Math.max(1, totalTime);
+		return String.format(Locale.ROOT, "%s,%s,%d,%.2f,%d,%d,%d,%.0f", instance, name, seed,
+				solution.getTotalDistance(), solution.getNbVehicles(), timeToBest[0], totalTime, evaluationsPerSecond);
+	}
+}
@@ -1,13 +1,13 @@
 import algorithm.*;
+import algorithm.construction.*;
 import data.Data;
 import model.Solution;
+import model.SolutionStore;
 import view.GraphView;
 
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.io.File;
 import java.util.Date;
-import java.util.NoSuchElementException;
-import java.util.stream.IntStream;
+import java.util.SplittableRandom;
 
 /**
  * Main class : contains the main method
@@ -20,16 +20,29 @@ public class Main {
 	 */
 	private static final int MAX_ITERATIONS = 10000;
 	private static final int MAX_NEIHGBORS = 250;
-	private static final int TABU_LIST_SIZE = 10;
+	private static final int TABU_TENURE = 10;
 	private static final double FINAL_TEMPERATURE = 0.01;
 	private static final double COOLING_RATE = 0.9;
+	private static final int NB_REPLICAS = 8;
+	private static final int NB_SWEEPS = 100;
+	private static final int NB_GENERATIONS = 100;
 	private static final boolean DYNAMIC = true;
+	private static final long PORTFOLIO_BUDGET = 30000; // milliseconds
+	private static final long ROUTE_MINIMIZATION_BUDGET = 10000; // milliseconds
+	private static final long SEED = System.currentTimeMillis(); // set a fixed value to reproduce a run
+	private static final boolean WARM_START = false; // true to start from the best known solution of the store
+	private static final SolutionStore STORE = new SolutionStore(new File("./solutions"));
 
 	/**
 	 * TODO Algorithm to execute
 	 */
 	private static final Class<? extends VRPTW> CHOSEN_ALGORITHM = SimulatedAnnealing.class;
 
+	/**
+	 * TODO Initial solution builder (RandomBuilder, SolomonInsertion, SavingsBuilder or SweepBuilder)
+	 */
+	private static final InitialSolutionBuilder BUILDER = new RandomBuilder();
+
 	/**
 	 * Main method : execute the program
 	 */
@@ -41,7 +54,7 @@ public class Main {
 		// TODO Uncomment to execute the chosen algorithm
 		executeAlgorithm(data);
 		// TODO Uncomment to get the best optimum for a data file
-//		getOptimumForAData(data,10);
+//		getOptimumForAData(data, PORTFOLIO_BUDGET);
 	}
 
 	/**
@@ -50,57 +63,69 @@ public class Main {
 	 * @param data data file
 	 */
 	private static void executeAlgorithm(Data data) {
-		Solution solution = VRPTW.init(data);
+		System.out.println("Seed : " + SEED);
+		SplittableRandom seeds = new SplittableRandom(SEED);
+		Solution solution = WARM_START ? VRPTW.init(data, BUILDER, STORE, seeds.nextLong()) : VRPTW.init(data, BUILDER, seeds.nextLong());
 		int oldCost = (int) solution.getTotalDistance();
-		int oldNbVehicles = solution.getVehicles().size();
+		int oldNbVehicles = solution.getNbVehicles();
 
-		Solution end;
+		VRPTW algorithm;
+		Termination termination = new Termination();
+		boolean dynamic = DYNAMIC;
 		if (CHOSEN_ALGORITHM.equals(Randomizer.class)) {
 			System.out.println("Randomizer algorithm found");
-			end = new Randomizer(MAX_ITERATIONS).search(solution, DYNAMIC);
+			algorithm = new Randomizer(MAX_ITERATIONS, seeds.nextLong());
 		} else if (CHOSEN_ALGORITHM.equals(HillClimbing.class)) {
 			System.out.println("HillClimbing algorithm found");
-			end = new HillClimbing(MAX_NEIHGBORS).search(solution, DYNAMIC);
+			algorithm = new HillClimbing(MAX_NEIHGBORS, seeds.nextLong());
 		} else if (CHOSEN_ALGORITHM.equals(Tabu.class)) {
 			System.out.println("Tabu algorithm found");
-			end = new Tabu(TABU_LIST_SIZE, MAX_ITERATIONS, MAX_NEIHGBORS).search(solution, DYNAMIC);
+			algorithm = new Tabu(TABU_TENURE, MAX_ITERATIONS, MAX_NEIHGBORS, seeds.nextLong());
 		} else if (CHOSEN_ALGORITHM.equals(SimulatedAnnealing.class)) {
 			System.out.println("SimulatedAnnealing algorithm found");
-			end = new SimulatedAnnealing(FINAL_TEMPERATURE, MAX_ITERATIONS, COOLING_RATE).search(solution);
+			algorithm = new SimulatedAnnealing(FINAL_TEMPERATURE, MAX_ITERATIONS, COOLING_RATE, seeds.nextLong());
+			dynamic = false;
+		} else if (CHOSEN_ALGORITHM.equals(ParallelTempering.class)) {
+			System.out.println("ParallelTempering algorithm found");
+			algorithm = new ParallelTempering(NB_REPLICAS, FINAL_TEMPERATURE, MAX_ITERATIONS, NB_SWEEPS, seeds.nextLong());
+		} else if (CHOSEN_ALGORITHM.equals(ALNS.class)) {
+			System.out.println("ALNS algorithm found");
+			algorithm = new ALNS(MAX_ITERATIONS, seeds.nextLong());
+		} else if (CHOSEN_ALGORITHM.equals(RouteMinimization.class)) {
+			System.out.println("RouteMinimization algorithm found");
+			algorithm = new RouteMinimization(MAX_ITERATIONS, seeds.nextLong());
+			termination = new Termination(ROUTE_MINIMIZATION_BUDGET, Termination.UNLIMITED, Termination.UNLIMITED);
+		} else if (CHOSEN_ALGORITHM.equals(HybridGeneticSearch.class)) {
+			System.out.println("HybridGeneticSearch algorithm found");
+			algorithm = new HybridGeneticSearch(NB_GENERATIONS, seeds.nextLong());
 		} else {
 			System.out.println("Algorithm not found");
 			return;
 		}
+		Solution end = algorithm.search(solution, termination, dynamic);
 
+		if (WARM_START && STORE.save(end, CHOSEN_ALGORITHM.getSimpleName(), algorithm.getSeed()))
+			System.out.println("New best known solution stored");
 		System.out.println("\nInitial solution cost : " + oldCost);
 		System.out.println("Final solution cost : " + (int) end.getTotalDistance());
 		System.out.println("Cost decrease : " + (oldCost - (int) end.getTotalDistance()));
-		System.out.println("Vehicles number decrease : " + (oldNbVehicles - end.getVehicles().size()) + " : " + oldNbVehicles + "->" + end.getVehicles().size());
+		System.out.println("Vehicles number decrease : " + (oldNbVehicles - end.getNbVehicles()) + " : " + oldNbVehicles + "->" + end.getNbVehicles());
 	}
 
 	/**
-	 * Get the best optimum for a data file
+	 * Get the best optimum for a data file (portfolio of algorithms on all the cores)
 	 * @param data
-	 * @param nbIterations
-	 * @return optimum
+	 * @param budget (milliseconds)
 	 */
-	private static void getOptimumForAData(Data data, int nbIterations) {
-		ArrayList<Solution> solutions = new ArrayList<>();
+	private static void getOptimumForAData(Data data, long budget) {
 		Date start = new Date();
-		IntStream.range(0, nbIterations).parallel().forEach(i -> {
-			Solution solution = VRPTW.getRandomSolution(data);
-			solution = new SimulatedAnnealing(FINAL_TEMPERATURE, MAX_ITERATIONS, COOLING_RATE).search(solution);
-			synchronized (solutions) {
-				solutions.add(solution);
-			}
-		});
-		Solution bestSolution = solutions
-				.stream()
-				.min(Comparator.comparingDouble(Solution::getTotalDistance))
-				.orElseThrow(NoSuchElementException::new);
+		System.out.println("Seed : " + SEED);
+		SplittableRandom seeds = new SplittableRandom(SEED);
+		Solution solution = BUILDER.build(data, seeds.split());
+		Solution bestSolution = new Portfolio(budget, Runtime.getRuntime().availableProcessors(), seeds.nextLong()).search(solution);
 		new GraphView(bestSolution);
-		System.out.printf("\n--- Optimum with %d iterations ---\n", nbIterations);
-		System.out.println("cost : " + bestSolution.getTotalDistance() + " - nb vehicles : " + bestSolution.getVehicles().size());
+		System.out.printf("\n--- Optimum in %d ms ---\n", budget);
+		System.out.println("cost : " + bestSolution.getTotalDistance() + " - nb vehicles : " + bestSolution.getNbVehicles());
 		System.out.println("Time : " + (new Date().getTime() - start.getTime()) + "ms");
 	}
-}
\ No newline at end of file
+}
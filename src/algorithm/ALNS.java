@@ -0,0 +1,176 @@
+package algorithm;
+
+import algorithm.alns.*;
+import model.Solution;
+import view.CostEvolutionView;
+import view.GraphView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * ALNS class : implements the Adaptive Large Neighborhood Search algorithm
+ * <p>
+ * Each iteration removes between minRemoval and maxRemoval of the clients with a destroy operator and inserts
+ * them again with a repair operator, both drawn by roulette wheel. The new solution is accepted like in the
+ * Simulated Annealing (the temperature decreases from accepting a solution 5% worse with a probability of 0.5
+ * to FINAL_TEMPERATURE_RATIO of it). The weights of the operators are updated every SEGMENT_LENGTH iterations
+ * from the scores they got (new best, better than the current one, accepted).
+ * @author Julian DEGUT
+ */
+public class ALNS extends VRPTW {
+
+	private static final int SEGMENT_LENGTH = 100;
+	private static final double REACTION_FACTOR = 0.1;
+	private static final double BEST_SCORE = 33;
+	private static final double BETTER_SCORE = 9;
+	private static final double ACCEPTED_SCORE = 13;
+	private static final double FINAL_TEMPERATURE_RATIO = 0.002;
+	private final int maxIterations;
+	private final double minRemoval;
+	private final double maxRemoval;
+	private final List<Destroy> destroys;
+	private final List<Repair> repairs;
+
+	/**
+	 * Constructor (random run seed)
+	 * @param maxIterations
+	 */
+	public ALNS(int maxIterations) {
+		this(maxIterations, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Constructor (10% to 40% of the clients removed at each iteration)
+	 * @param maxIterations
+	 * @param seed (run seed)
+	 */
+	public ALNS(int maxIterations, long seed) {
+		this(maxIterations, 0.1, 0.4, seed);
+	}
+
+	/**
+	 * Constructor
+	 * @param maxIterations
+	 * @param minRemoval (min fraction of the clients removed at each iteration)
+	 * @param maxRemoval (max fraction of the clients removed at each iteration)
+	 * @param seed (run seed)
+	 */
+	public ALNS(int maxIterations, double minRemoval, double maxRemoval, long seed) {
+		super(seed);
+		this.maxIterations = maxIterations;
+		this.minRemoval = minRemoval;
+		this.maxRemoval = maxRemoval;
+		this.destroys = List.of(new RandomRemoval(), new WorstRemoval(), new ShawRemoval(), new RouteRemoval());
+		this.repairs = List.of(new GreedyInsertion(), new RegretInsertion(2), new RegretInsertion(3));
+		super.costs = new ArrayList<>();
+	}
+
+	/**
+	 * Search method : starts the ALNS algorithm
+	 * @param solution (initial random solution)
+	 * @param dynamic (true if the graph is displayed & refreshed)
+	 * @return solution
+	 */
+	public Solution search(Solution solution, boolean dynamic) {
+		if(dynamic) super.graphView = new GraphView(solution);
+		super.costs.add(solution.getTotalDistance());
+		int nbClients = solution.getData().getNbVertices() - 1;
+		int minCount = Math.max(1, (int) (minRemoval * nbClients));
+		int maxCount = Math.max(minCount, (int) (maxRemoval * nbClients));
+		double[] destroyWeights = new double[destroys.size()];
+		double[] destroyScores = new double[destroys.size()];
+		int[] destroyUses = new int[destroys.size()];
+		double[] repairWeights = new double[repairs.size()];
+		double[] repairScores = new double[repairs.size()];
+		int[] repairUses = new int[repairs.size()];
+		Arrays.fill(destroyWeights, 1);
+		Arrays.fill(repairWeights, 1);
+
+		double temperature = -0.05 * solution.getTotalDistance() / Math.log(0.5);
+		double coolingRate = Math.pow(FINAL_TEMPERATURE_RATIO, 1.0 / Math.max(1, maxIterations));
+		Solution current = solution;
+		Solution bestSolution = solution.copy();
+		for(int i = 0; i < maxIterations && termination.next(); i++) {
+			int d = roulette(destroyWeights);
+			int r = roulette(repairWeights);
+			Solution candidate = current.copy();
+			int count = minCount + random.nextInt(maxCount - minCount + 1);
+			int[] removed = destroys.get(d).destroy(candidate, random, count);
+			repairs.get(r).repair(candidate, random, removed);
+			termination.evaluate(1); // a destroy & repair counts as one move
+
+			double score = 0;
+			if(candidate.getTotalDistance() < bestSolution.getTotalDistance()) {
+				score = BEST_SCORE;
+				bestSolution = candidate.copy();
+				termination.newBest(bestSolution);
+				if(dynamic) graphView.update(bestSolution);
+			} else if(candidate.getTotalDistance() < current.getTotalDistance())
+				score = BETTER_SCORE;
+			double probability = SimulatedAnnealing.acceptanceProbability(current.getTotalDistance(), candidate.getTotalDistance(), temperature);
+			if(random.nextDouble() <= probability) {
+				if(score == 0)
+					score = ACCEPTED_SCORE;
+				current = candidate;
+				super.costs.add(current.getTotalDistance());
+			}
+			destroyScores[d] += score;
+			destroyUses[d]++;
+			repairScores[r] += score;
+			repairUses[r]++;
+			if((i + 1) % SEGMENT_LENGTH == 0) {
+				updateWeights(destroyWeights, destroyScores, destroyUses);
+				updateWeights(repairWeights, repairScores, repairUses);
+			}
+			temperature *= coolingRate;
+		}
+		if(dynamic) CostEvolutionView.displayChart(costs);
+		return bestSolution;
+	}
+
+	/**
+	 * Search method : starts the ALNS algorithm
+	 * @param solution (initial random solution)
+	 * @return solution
+	 */
+	public Solution search(Solution solution) {
+		return search(solution, false);
+	}
+
+	/**
+	 * Draw an operator with a probability proportional to its weight
+	 * @param weights
+	 * @return index of the operator
+	 */
+	private int roulette(double[] weights) {
+		double total = 0;
+		for(double weight : weights)
+			total += weight;
+		double value = random.nextDouble() * total;
+		for(int i = 0; i < weights.length - 1; i++) {
+			value -= weights[i];
+			if(value < 0)
+				return i;
+		}
+		return weights.length - 1;
+	}
+
+	/**
+	 * Update the weights of the operators from their scores during the segment (the scores are reset)
+	 * @param weights
+	 * @param scores
+	 * @param uses
+	 */
+	private static void updateWeights(double[] weights, double[] scores, int[] uses) {
+		for(int i = 0; i < weights.length; i++) {
+			if(uses[i] > 0)
+				weights[i] = (1 - REACTION_FACTOR) * weights[i] + REACTION_FACTOR * scores[i] / uses[i];
+			weights[i] = Math.max(weights[i], 0.01);
+			scores[i] = 0;
+			uses[i] = 0;
+		}
+	}
+}
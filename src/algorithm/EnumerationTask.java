@@ -0,0 +1,88 @@
+package algorithm;
+
+import algorithm.operator.Operator;
+import model.Neighbor;
+import model.Solution;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongConsumer;
+
+/**
+ * EnumerationTask class : fork-join task enumerating the moves of a range of pairs of vehicles
+ * <p>
+ * The pair i is (i / m, i % m) for m vehicles, the pair (v, v) stands for the intra moves of v.
+ * Each leaf keeps its best move and uses it as the threshold of the next enumerations (pruning),
+ * the leaves are combined in the order of the pairs, so the result does not depend on the scheduling.
+ * The enumeration stops as soon as the termination of the search is interrupted (cancelled or budget spent).
+ * @author Julian DEGUT
+ */
+class EnumerationTask extends RecursiveTask<NeighborReducer> {
+
+	private static final long serialVersionUID = 1L;
+	private static final int PAIRS_PER_LEAF = 8;
+	private final List<Operator> operators;
+	private final Solution solution;
+	private final double threshold;
+	private final Termination termination;
+	private final int from;
+	private final int to;
+
+	/**
+	 * Constructor
+	 * @param operators
+	 * @param solution
+	 * @param threshold (cost change to beat)
+	 * @param termination (checked before each pair, counts the moves whose cost change is evaluated)
+	 * @param from (first pair)
+	 * @param to (last pair, excluded)
+	 */
+	EnumerationTask(List<Operator> operators, Solution solution, double threshold, Termination termination, int from, int to) {
+		this.operators = operators;
+		this.solution = solution;
+		this.threshold = threshold;
+		this.termination = termination;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * Compute method : enumerate the range of pairs (split in two halves until it is small enough)
+	 * @return reducer of the range (best move)
+	 */
+	@Override
+	protected NeighborReducer compute() {
+		if(to - from <= PAIRS_PER_LEAF)
+			return enumerate();
+		int middle = (from + to) >>> 1;
+		EnumerationTask right = new EnumerationTask(operators, solution, threshold, termination, middle, to);
+		right.fork();
+		NeighborReducer reducer = new EnumerationTask(operators, solution, threshold, termination, from, middle).compute();
+		return reducer.combine(right.join());
+	}
+
+	/**
+	 * Enumerate the moves of the pairs of the range
+	 * @return reducer of the range
+	 */
+	private NeighborReducer enumerate() {
+		NeighborReducer reducer = new NeighborReducer(1, null);
+		int nbVehicles = solution.getNbVehicles();
+		double best = threshold;
+		long[] evaluations = new long[1];
+		LongConsumer counter = count -> evaluations[0] += count;
+		for(int pair = from; pair < to && !termination.isInterrupted(); pair++) {
+			int v1 = pair / nbVehicles;
+			int v2 = pair % nbVehicles == v1 ? -1 : pair % nbVehicles;
+			for(Operator operator : operators) {
+				Neighbor neighbor = operator.enumerate(solution, v1, v2, best, counter);
+				if(neighbor != null) {
+					reducer.accept(neighbor);
+					best = neighbor.getDelta();
+				}
+			}
+		}
+		termination.evaluate(evaluations[0]);
+		return reducer;
+	}
+}
@@ -7,20 +7,38 @@ import view.CostEvolutionView;
 import view.GraphView;
 
 import java.util.ArrayList;
-import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * HillClimbing class : implements the Hill Climbing algorithm
+ * <p>
+ * The best neighbor is taken among maxNeighbors random moves per operator, or among all the moves
+ * in the exhaustive mode (maxNeighbors = EXHAUSTIVE), which stops on a true local optimum.
  * @author Julian DEGUT
  */
 public class HillClimbing extends VRPTW {
+
+	/**
+	 * Value of maxNeighbors enumerating all the moves
+	 */
+	public static final int EXHAUSTIVE = 0;
 	private final int maxNeighbors;
 
 	/**
-	 * Constructor
-	 * @param maxNeighbors
+	 * Constructor (random run seed)
+	 * @param maxNeighbors (EXHAUSTIVE to enumerate all the moves)
 	 */
 	public HillClimbing(int maxNeighbors) {
+		this(maxNeighbors, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Constructor
+	 * @param maxNeighbors (EXHAUSTIVE to enumerate all the moves)
+	 * @param seed (run seed)
+	 */
+	public HillClimbing(int maxNeighbors, long seed) {
+		super(seed);
 		this.maxNeighbors = maxNeighbors;
 		super.costs = new ArrayList<>();
 	}
@@ -36,15 +54,13 @@ public class HillClimbing extends VRPTW {
 		super.costs.add(solution.getTotalDistance());
 		boolean continued = true;
 		Neighbor bestNeighbor;
-		while(continued) {
-			List<Neighbor> neighborhood = getNeighborhood(solution, maxNeighbors);
-			if(neighborhood.size() != 0) {
-				bestNeighbor = neighborhood.stream()
-						.min((n1, n2) -> Double.compare(fitness(n1), fitness(n2)))
-						.orElse(neighborhood.get(0));
+		while(continued && termination.next()) {
+			bestNeighbor = maxNeighbors == EXHAUSTIVE ? getBestImprovement(solution) : getBestNeighbor(solution, maxNeighbors, null);
+			if(bestNeighbor != null) {
 				if(fitness(bestNeighbor) < solution.getTotalDistance()) {
 					Operator operator = bestNeighbor.getOperator();
 					operator.execute(solution, bestNeighbor);
+					termination.newBest(solution);
 					if(dynamic) graphView.update(solution);
 					super.costs.add(solution.getTotalDistance());
 				} else
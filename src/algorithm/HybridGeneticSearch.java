@@ -0,0 +1,381 @@
+package algorithm;
+
+import data.Data;
+import model.Solution;
+import model.Vehicle;
+import view.CostEvolutionView;
+import view.GraphView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * HybridGeneticSearch class : implements a hybrid genetic search (Vidal et al.)
+ * <p>
+ * The individuals are giant tours (all the clients without the depot) cut into routes by the Split procedure.
+ * Each generation, BATCH_SIZE offspring are created in parallel : two parents drawn by binary tournaments
+ * are crossed (OX), the child is split and educated by the local search of the operators. The offspring are
+ * added in order, and when the population exceeds populationSize + generationSize individuals, the ones with
+ * the worst biased fitness (rank of the cost plus rank of the contribution to the diversity, broken pairs
+ * distance to the NB_CLOSE closest individuals) are removed, clones first. Each offspring has its own generator
+ * split from the run generator, so a run only depends on its seed.
+ * @author Julian DEGUT
+ */
+public class HybridGeneticSearch extends VRPTW {
+
+	private static final int BATCH_SIZE = 8;
+	private static final int NB_ELITE = 4;
+	private static final int NB_CLOSE = 5;
+	private final int populationSize;
+	private final int generationSize;
+	private final int maxGenerations;
+
+	/**
+	 * Constructor (random run seed)
+	 * @param maxGenerations
+	 */
+	public HybridGeneticSearch(int maxGenerations) {
+		this(maxGenerations, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Constructor (population of 25 individuals + 40 offspring)
+	 * @param maxGenerations
+	 * @param seed (run seed)
+	 */
+	public HybridGeneticSearch(int maxGenerations, long seed) {
+		this(25, 40, maxGenerations, seed);
+	}
+
+	/**
+	 * Constructor
+	 * @param populationSize (individuals kept by the survivor selection)
+	 * @param generationSize (offspring added before the survivor selection)
+	 * @param maxGenerations (batches of BATCH_SIZE offspring)
+	 * @param seed (run seed)
+	 */
+	public HybridGeneticSearch(int populationSize, int generationSize, int maxGenerations, long seed) {
+		super(seed);
+		if(populationSize < 2)
+			throw new IllegalArgumentException("A population needs at least 2 individuals");
+		this.populationSize = populationSize;
+		this.generationSize = generationSize;
+		this.maxGenerations = maxGenerations;
+		super.costs = new ArrayList<>();
+	}
+
+	/**
+	 * Search method : starts the hybrid genetic search
+	 * @param solution (initial solution, added to the population)
+	 * @param dynamic (true if the graph is displayed & refreshed)
+	 * @return solution
+	 */
+	public Solution search(Solution solution, boolean dynamic) {
+		if(dynamic) super.graphView = new GraphView(solution);
+		super.costs.add(solution.getTotalDistance());
+		Data data = solution.getData();
+		List<Individual> population = new ArrayList<>();
+		Solution educated = solution.copy();
+		localSearch(educated);
+		population.add(new Individual(educated));
+		int nbClients = data.getNbVertices() - 1;
+		List<SplittableRandom> randoms = new ArrayList<>();
+		for(int i = 1; i < populationSize; i++)
+			randoms.add(random.split());
+		population.addAll(generate(randoms, random -> {
+			int[] tour = new int[nbClients];
+			for(int j = 0; j < nbClients; j++)
+				tour[j] = j + 1;
+			for(int j = nbClients - 1; j > 0; j--) {
+				int k = random.nextInt(j + 1);
+				int client = tour[j];
+				tour[j] = tour[k];
+				tour[k] = client;
+			}
+			return educate(data, tour);
+		}));
+		Individual best = population.stream().min(Comparator.comparingDouble(Individual::getCost)).orElseThrow();
+		termination.newBest(best.solution);
+
+		for(int generation = 0; generation < maxGenerations && termination.next(); generation++) {
+			double[] fitness = getBiasedFitness(population);
+			randoms.clear();
+			for(int i = 0; i < BATCH_SIZE; i++)
+				randoms.add(random.split());
+			List<Individual> parents = population;
+			List<Individual> offspring = generate(randoms, random -> {
+				int[] parent1 = parents.get(tournament(random, fitness)).tour;
+				int[] parent2 = parents.get(tournament(random, fitness)).tour;
+				return educate(data, crossover(random, parent1, parent2));
+			});
+			for(Individual child : offspring) {
+				population.add(child);
+				if(child.getCost() < best.getCost() - 1e-9) {
+					best = child;
+					termination.newBest(best.solution);
+					super.costs.add(best.getCost());
+					if(dynamic) graphView.update(best.solution);
+				}
+			}
+			if(population.size() >= populationSize + generationSize)
+				selectSurvivors(population);
+		}
+		if(dynamic) CostEvolutionView.displayChart(costs);
+		return best.solution;
+	}
+
+	/**
+	 * Search method : starts the hybrid genetic search
+	 * @param solution (initial solution, added to the population)
+	 * @return solution
+	 */
+	public Solution search(Solution solution) {
+		return search(solution, false);
+	}
+
+	/**
+	 * Generate individuals in parallel, one per generator (in the order of the generators)
+	 * @param randoms
+	 * @param generator
+	 * @return individuals
+	 */
+	private List<Individual> generate(List<SplittableRandom> randoms, Generator generator) {
+		Individual[] individuals = new Individual[randoms.size()];
+		List<ForkJoinTask<?>> tasks = new ArrayList<>(randoms.size());
+		for(int i = 0; i < randoms.size(); i++) {
+			int index = i;
+			tasks.add(ForkJoinTask.adapt(() -> individuals[index] = generator.generate(randoms.get(index))));
+		}
+		getPool().invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+		return Arrays.asList(individuals);
+	}
+
+	/**
+	 * Split a giant tour and educate the solution by local search
+	 * @param data
+	 * @param tour
+	 * @return individual
+	 */
+	private Individual educate(Data data, int[] tour) {
+		Solution solution = split(data, tour);
+		localSearch(solution);
+		return new Individual(solution);
+	}
+
+	/**
+	 * Split procedure : cut a giant tour into feasible routes of minimal total distance
+	 * (shortest path in the DAG of the feasible routes of consecutive clients, a route is extended until its
+	 * capacity or a time window is exceeded, so the procedure is linear in the number of clients times the
+	 * length of the longest feasible route)
+	 * @param data
+	 * @param tour (clients)
+	 * @return solution
+	 * @throws IllegalStateException if a client cannot be served alone (the instance has no feasible solution)
+	 */
+	static Solution split(Data data, int[] tour) {
+		int n = tour.length;
+		double[] potentials = new double[n + 1];
+		int[] predecessors = new int[n + 1];
+		Arrays.fill(potentials, Double.POSITIVE_INFINITY);
+		potentials[0] = 0;
+		for(int i = 0; i < n; i++) {
+			int load = 0;
+			double distance = 0;
+			double departure = data.getReadyTime(0);
+			int previous = 0;
+			for(int j = i; j < n; j++) {
+				int client = tour[j];
+				load += data.getDemand(client);
+				departure = Vehicle.visit(data, previous, departure, client);
+				if(load > data.getMaxQuantity() || departure == Vehicle.INFEASIBLE
+						|| departure + data.getTravelTime(client, 0) > data.getDueTime(0) + Vehicle.EPSILON)
+					break; // the next clients are reached later
+				distance += data.getDistance(previous, client);
+				double cost = potentials[i] + distance + data.getDistance(client, 0);
+				if(cost < potentials[j + 1]) {
+					potentials[j + 1] = cost;
+					predecessors[j + 1] = i;
+				}
+				previous = client;
+			}
+			if(potentials[i + 1] == Double.POSITIVE_INFINITY)
+				throw new IllegalStateException("Client " + tour[i] + " cannot be served by a vehicle of its own");
+		}
+		List<Vehicle> vehicles = new ArrayList<>();
+		for(int j = n; j > 0; j = predecessors[j])
+			vehicles.add(new Vehicle(data, Arrays.copyOfRange(tour, predecessors[j], j)));
+		return new Solution(data, vehicles);
+	}
+
+	/**
+	 * Order crossover (OX) : the child keeps a random segment of the first parent,
+	 * the other clients are taken in the order of the second parent after the segment
+	 * @param random
+	 * @param parent1
+	 * @param parent2
+	 * @return child
+	 */
+	static int[] crossover(SplittableRandom random, int[] parent1, int[] parent2) {
+		int n = parent1.length;
+		int start = random.nextInt(n);
+		int end = random.nextInt(n);
+		int[] child = new int[n];
+		boolean[] used = new boolean[n + 1];
+		int i = start;
+		while(true) {
+			child[i] = parent1[i];
+			used[parent1[i]] = true;
+			if(i == end)
+				break;
+			i = (i + 1) % n;
+		}
+		int position = (end + 1) % n;
+		for(int k = 1; k <= n; k++) {
+			int client = parent2[(end + k) % n];
+			if(!used[client]) {
+				child[position] = client;
+				position = (position + 1) % n;
+			}
+		}
+		return child;
+	}
+
+	/**
+	 * Binary tournament on the biased fitness (lower is better)
+	 * @param random
+	 * @param fitness
+	 * @return index of the individual
+	 */
+	private static int tournament(SplittableRandom random, double[] fitness) {
+		int first = random.nextInt(fitness.length);
+		int second = random.nextInt(fitness.length);
+		return fitness[first] <= fitness[second] ? first : second;
+	}
+
+	/**
+	 * Survivor selection : remove the individuals with the worst biased fitness (clones first)
+	 * until the population is back to populationSize
+	 * @param population (modified)
+	 */
+	private void selectSurvivors(List<Individual> population) {
+		while(population.size() > populationSize) {
+			double[] fitness = getBiasedFitness(population);
+			int worst = -1;
+			boolean worstClone = false;
+			for(int i = 0; i < population.size(); i++) {
+				boolean clone = population.get(i).closest == 0;
+				if(worst < 0 || (clone && !worstClone) || (clone == worstClone && fitness[i] > fitness[worst])) {
+					worst = i;
+					worstClone = clone;
+				}
+			}
+			population.remove(worst);
+		}
+	}
+
+	/**
+	 * Get the biased fitness of the individuals : rank of the cost + (1 - NB_ELITE / size) * rank of the diversity
+	 * (the diversity & the distance to the closest individual of each individual are updated)
+	 * @param population
+	 * @return fitness (lower is better)
+	 */
+	private static double[] getBiasedFitness(List<Individual> population) {
+		int size = population.size();
+		double[][] distances = new double[size][size];
+		for(int i = 0; i < size; i++) {
+			for(int j = i + 1; j < size; j++)
+				distances[i][j] = distances[j][i] = population.get(i).distance(population.get(j));
+		}
+		for(int i = 0; i < size; i++) {
+			double[] row = distances[i].clone();
+			row[i] = Double.POSITIVE_INFINITY;
+			Arrays.sort(row);
+			int nbClose = Math.min(NB_CLOSE, size - 1);
+			double sum = 0;
+			for(int k = 0; k < nbClose; k++)
+				sum += row[k];
+			population.get(i).diversity = nbClose == 0 ? 1 : sum / nbClose;
+			population.get(i).closest = nbClose == 0 ? 1 : row[0];
+		}
+		Integer[] byCost = new Integer[size];
+		Integer[] byDiversity = new Integer[size];
+		for(int i = 0; i < size; i++)
+			byCost[i] = byDiversity[i] = i;
+		Arrays.sort(byCost, Comparator.comparingDouble(i -> population.get(i).getCost()));
+		Arrays.sort(byDiversity, Comparator.comparingDouble(i -> -population.get(i).diversity));
+		double[] fitness = new double[size];
+		double weight = 1 - (double) Math.min(NB_ELITE, size) / size;
+		for(int rank = 0; rank < size; rank++) {
+			fitness[byCost[rank]] += (double) rank / size;
+			fitness[byDiversity[rank]] += weight * rank / size;
+		}
+		return fitness;
+	}
+
+	/**
+	 * Generator interface : creates an individual from a generator
+	 */
+	@FunctionalInterface
+	private interface Generator {
+		Individual generate(SplittableRandom random);
+	}
+
+	/**
+	 * Individual class : a solution, its giant tour and the neighbors of its clients
+	 */
+	private static class Individual {
+		private final Solution solution;
+		private final int[] tour;
+		private final int[] successors;
+		private final int[] predecessors;
+		private double diversity;
+		private double closest; // distance to the closest individual, 0 for a clone
+
+		/**
+		 * Constructor
+		 * @param solution
+		 */
+		Individual(Solution solution) {
+			int nbVertices = solution.getData().getNbVertices();
+			this.solution = solution;
+			this.tour = new int[nbVertices - 1];
+			this.successors = new int[nbVertices];
+			this.predecessors = new int[nbVertices];
+			int length = 0;
+			for(Vehicle vehicle : solution.getVehicles()) {
+				for(int position = 1; position <= vehicle.size(); position++) {
+					int client = vehicle.getVertex(position);
+					tour[length++] = client;
+					predecessors[client] = vehicle.getVertex(position - 1);
+					successors[client] = vehicle.getVertex(position + 1);
+				}
+			}
+		}
+
+		/**
+		 * Get the cost of the individual
+		 * @return cost
+		 */
+		double getCost() {
+			return solution.getTotalDistance();
+		}
+
+		/**
+		 * Broken pairs distance : fraction of the clients whose neighbors differ in the other individual
+		 * @param other
+		 * @return distance (0 for clones)
+		 */
+		double distance(Individual other) {
+			int broken = 0;
+			for(int client = 1; client < successors.length; client++) {
+				if(successors[client] != other.successors[client] && successors[client] != other.predecessors[client])
+					broken++;
+			}
+			return (double) broken / (successors.length - 1);
+		}
+	}
+}
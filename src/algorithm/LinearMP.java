@@ -27,9 +27,7 @@ public class LinearMP {
 	) {}
 
 	private static DataModel build(Data data) {
-		List<Vertex> vertices = new ArrayList<>();
-		vertices.add(data.getDepot());
-		vertices.addAll(data.getClients());
+		List<Vertex> vertices = data.getVertices();
 		int nbVehicles = 1;
 		int depotIndex = 0;
 		int capacityMax = data.getMaxQuantity();
@@ -52,10 +50,9 @@ public class LinearMP {
 				demands[i] = client.getDemand();
 			}
 			for (int j = 0; j < vertices.size(); j++) {
-				Vertex to = vertices.get(j);
-				distances[i][j] = from.getDistance(to);
+				distances[i][j] = data.getDistance(i, j);
 			}
-			distances[i][vertices.size()] = from.getDistance(vertices.get(depotIndex));
+			distances[i][vertices.size()] = data.getDistance(i, depotIndex);
 		}
 		serviceTime[vertices.size()] = serviceTime[depotIndex];
 		distances[vertices.size()] = distances[depotIndex];
@@ -190,7 +187,7 @@ public class LinearMP {
 			System.out.println("Solution trouvée:");
 			List<Vehicle> vehicles = new ArrayList<>();
 			for (int k = 0; k < data.nbVehicles; k++) {
-				Vehicle v = new Vehicle((Depot) data.vertices.get(data.depotIndex), data.capacityMax);
+				Vehicle v = new Vehicle(dataFile);
 				int index = data.depotIndex;
 				System.out.println("Véhicule " + (k + 1) + " :");
 				for (int i = 0; i < nbVertices; i++) {
@@ -0,0 +1,125 @@
+package algorithm;
+
+import model.Neighbor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * NeighborReducer class : receives the scanned neighbors and keeps only the k best admissible ones
+ * (or all of them when k <= 0)
+ * <p>
+ * Each worker fills its own reducer, the reducers are then combined in a fixed order.
+ * The best inadmissible neighbor is kept as a fallback when no neighbor is admissible.
+ * @author Julian DEGUT
+ */
+public class NeighborReducer {
+
+	private final int k;
+	private final Predicate<Neighbor> admissible;
+	private Neighbor[] neighbors;
+	private int size;
+	private Neighbor fallback;
+	private long rejected;
+
+	/**
+	 * Constructor
+	 * @param k (number of neighbors kept, all of them if k <= 0)
+	 * @param admissible (null if all the neighbors are admissible)
+	 */
+	public NeighborReducer(int k, Predicate<Neighbor> admissible) {
+		this.k = k;
+		this.admissible = admissible;
+		this.neighbors = new Neighbor[k > 0 ? k : 16];
+		this.size = 0;
+		this.fallback = null;
+		this.rejected = 0;
+	}
+
+	/**
+	 * Accept a scanned neighbor
+	 * @param neighbor
+	 */
+	public void accept(Neighbor neighbor) {
+		if(k > 0 && size == k && neighbor.getCost() >= neighbors[k - 1].getCost())
+			return;
+		if(admissible != null && !admissible.test(neighbor)) {
+			rejected++;
+			if(fallback == null || neighbor.getCost() < fallback.getCost())
+				fallback = neighbor;
+			return;
+		}
+		add(neighbor);
+	}
+
+	/**
+	 * Add an admissible neighbor
+	 * @param neighbor
+	 */
+	private void add(Neighbor neighbor) {
+		if(k <= 0) {
+			if(size == neighbors.length)
+				neighbors = Arrays.copyOf(neighbors, size * 2);
+			neighbors[size++] = neighbor;
+			return;
+		}
+		if(size == k && neighbor.getCost() >= neighbors[k - 1].getCost())
+			return;
+		int i = size < k ? size++ : k - 1;
+		while(i > 0 && neighbor.getCost() < neighbors[i - 1].getCost()) {
+			neighbors[i] = neighbors[i - 1];
+			i--;
+		}
+		neighbors[i] = neighbor;
+	}
+
+	/**
+	 * Combine with the reducer of another worker (its neighbors come after the ones of this reducer)
+	 * @param other
+	 * @return this reducer
+	 */
+	public NeighborReducer combine(NeighborReducer other) {
+		for(int i = 0; i < other.size; i++)
+			add(other.neighbors[i]);
+		if(other.fallback != null && (fallback == null || other.fallback.getCost() < fallback.getCost()))
+			fallback = other.fallback;
+		rejected += other.rejected;
+		return this;
+	}
+
+	/**
+	 * Get the best admissible neighbor (the best inadmissible one if none is admissible)
+	 * @return neighbor, null if no neighbor was accepted
+	 */
+	public Neighbor getBest() {
+		if(size == 0)
+			return fallback;
+		if(k > 0)
+			return neighbors[0];
+		Neighbor best = neighbors[0];
+		for(int i = 1; i < size; i++) {
+			if(neighbors[i].getCost() < best.getCost())
+				best = neighbors[i];
+		}
+		return best;
+	}
+
+	/**
+	 * Get the neighbors kept (sorted by cost when k > 0, in scan order otherwise)
+	 * @return neighbors
+	 */
+	public List<Neighbor> getNeighbors() {
+		return new ArrayList<>(Arrays.asList(neighbors).subList(0, size));
+	}
+
+	/**
+	 * Get the number of neighbors rejected by the admissibility test
+	 * (only the neighbors good enough to be kept are tested)
+	 * @return rejected
+	 */
+	public long getRejected() {
+		return rejected;
+	}
+}
@@ -0,0 +1,99 @@
+package algorithm;
+
+import algorithm.operator.Operator;
+import model.Neighbor;
+import model.Solution;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * NeighborhoodTask class : fork-join task scanning a range of chunks of the neighborhood
+ * <p>
+ * Each chunk (operator, scans range) is scanned by a single worker with its own generator into its own reducer,
+ * the reducers are combined in the order of the chunks when the tasks are joined : no lock and no shared structure.
+ * The scans stop as soon as the termination of the search is interrupted (cancelled or budget spent).
+ * @author Julian DEGUT
+ */
+class NeighborhoodTask extends RecursiveTask<NeighborReducer> {
+
+	private static final long serialVersionUID = 1L;
+	private final List<Operator> operators;
+	private final Solution solution;
+	private final SplittableRandom[] randoms;
+	private final int maxNeighbors;
+	private final int chunkSize;
+	private final boolean granular;
+	private final int k;
+	private final Predicate<Neighbor> admissible;
+	private final Termination termination;
+	private final int from;
+	private final int to;
+
+	/**
+	 * Constructor
+	 * @param operators
+	 * @param solution
+	 * @param randoms (one generator per chunk)
+	 * @param maxNeighbors (scans per operator)
+	 * @param chunkSize (scans per chunk)
+	 * @param granular (granular scan mode)
+	 * @param k (neighbors kept by the reducers, all of them if k <= 0)
+	 * @param admissible (null if all the neighbors are admissible)
+	 * @param termination (evaluations counted, checked before each scan)
+	 * @param from (first chunk)
+	 * @param to (last chunk, excluded)
+	 */
+	NeighborhoodTask(List<Operator> operators, Solution solution, SplittableRandom[] randoms, int maxNeighbors, int chunkSize,
+					 boolean granular, int k, Predicate<Neighbor> admissible, Termination termination, int from, int to) {
+		this.operators = operators;
+		this.solution = solution;
+		this.randoms = randoms;
+		this.maxNeighbors = maxNeighbors;
+		this.chunkSize = chunkSize;
+		this.granular = granular;
+		this.k = k;
+		this.admissible = admissible;
+		this.termination = termination;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * Compute method : scans the chunk or splits the range in two tasks
+	 * @return reducer of the range (combined in the order of the chunks)
+	 */
+	@Override
+	protected NeighborReducer compute() {
+		if(to - from == 1)
+			return scan(from);
+		int middle = (from + to) >>> 1;
+		NeighborhoodTask right = new NeighborhoodTask(operators, solution, randoms, maxNeighbors, chunkSize, granular, k, admissible, termination, middle, to);
+		right.fork();
+		NeighborReducer reducer = new NeighborhoodTask(operators, solution, randoms, maxNeighbors, chunkSize, granular, k, admissible, termination, from, middle).compute();
+		return reducer.combine(right.join());
+	}
+
+	/**
+	 * Scan a chunk
+	 * @param chunk
+	 * @return reducer of the chunk
+	 */
+	private NeighborReducer scan(int chunk) {
+		int chunks = randoms.length / operators.size();
+		Operator operator = operators.get(chunk / chunks);
+		int start = (chunk % chunks) * chunkSize;
+		int end = Math.min(maxNeighbors, start + chunkSize);
+		NeighborReducer reducer = new NeighborReducer(k, admissible);
+		int i = start;
+		for(; i < end && !termination.isInterrupted(); i++) {
+			Neighbor neighbor = operator.scan(solution, randoms[chunk], granular);
+			if(neighbor != null)
+				reducer.accept(neighbor);
+		}
+		termination.evaluate(i - start);
+		return reducer;
+	}
+}
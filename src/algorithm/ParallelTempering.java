@@ -0,0 +1,173 @@
+package algorithm;
+
+import algorithm.operator.Operator;
+import model.Neighbor;
+import model.Solution;
+import view.CostEvolutionView;
+import view.GraphView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * ParallelTempering class : implements the parallel tempering variant of the Simulated Annealing algorithm
+ * <p>
+ * Replicas of the solution are annealed in parallel at a ladder of fixed temperatures (from the initial
+ * temperature of the Simulated Annealing down to the final one). After each sweep, the states of two
+ * neighboring temperatures are swapped with the Metropolis probability, so the good states sink to the
+ * cold replicas while the hot ones keep exploring. Each replica has its own generator split from the run
+ * generator and the swaps are drawn in order, so a run only depends on its seed.
+ * @author Julian DEGUT
+ */
+public class ParallelTempering extends VRPTW {
+	private final int nbReplicas;
+	private final double finalTemperature;
+	private final int iterationsPerSweep;
+	private final int nbSweeps;
+
+	/**
+	 * Constructor (random run seed)
+	 * @param nbReplicas (at least 2)
+	 * @param finalTemperature (temperature of the coldest replica)
+	 * @param iterationsPerSweep (iterations of each replica between two exchanges)
+	 * @param nbSweeps
+	 */
+	public ParallelTempering(int nbReplicas, double finalTemperature, int iterationsPerSweep, int nbSweeps) {
+		this(nbReplicas, finalTemperature, iterationsPerSweep, nbSweeps, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Constructor
+	 * @param nbReplicas (at least 2)
+	 * @param finalTemperature (temperature of the coldest replica)
+	 * @param iterationsPerSweep (iterations of each replica between two exchanges)
+	 * @param nbSweeps
+	 * @param seed (run seed)
+	 */
+	public ParallelTempering(int nbReplicas, double finalTemperature, int iterationsPerSweep, int nbSweeps, long seed) {
+		super(seed);
+		if(nbReplicas < 2)
+			throw new IllegalArgumentException("Parallel tempering needs at least 2 replicas");
+		this.nbReplicas = nbReplicas;
+		this.finalTemperature = finalTemperature;
+		this.iterationsPerSweep = iterationsPerSweep;
+		this.nbSweeps = nbSweeps;
+		super.costs = new ArrayList<>();
+	}
+
+	/**
+	 * Search method : starts the parallel tempering algorithm
+	 * @param solution (initial random solution)
+	 * @param dynamic (true if the graph is displayed & refreshed)
+	 * @return solution
+	 */
+	public Solution search(Solution solution, boolean dynamic) {
+		if(dynamic) super.graphView = new GraphView(solution);
+		super.costs.add(solution.getTotalDistance());
+		double[] temperatures = getTemperatures(SimulatedAnnealing.getInitialTemperature(this, solution));
+		Solution[] states = new Solution[nbReplicas];
+		Solution[] bests = new Solution[nbReplicas];
+		SplittableRandom[] randoms = new SplittableRandom[nbReplicas];
+		for(int i = 0; i < nbReplicas; i++) {
+			states[i] = solution.copy();
+			randoms[i] = random.split();
+		}
+		Solution bestSolution = solution.copy();
+		for(int sweep = 0; sweep < nbSweeps && termination.next(); sweep++) {
+			double bestCost = bestSolution.getTotalDistance();
+			List<ForkJoinTask<?>> replicas = new ArrayList<>(nbReplicas);
+			for(int i = 0; i < nbReplicas; i++) {
+				int replica = i;
+				replicas.add(ForkJoinTask.adapt(() ->
+						bests[replica] = anneal(states[replica], temperatures[replica], randoms[replica], bestCost)));
+			}
+			getPool().invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(replicas)));
+
+			for(Solution best : bests) {
+				if(best != null && best.getTotalDistance() < bestSolution.getTotalDistance())
+					bestSolution = best;
+			}
+			if(bestSolution.getTotalDistance() < bestCost)
+				termination.newBest(bestSolution);
+			super.costs.add(bestSolution.getTotalDistance());
+			if(dynamic) graphView.update(bestSolution);
+
+			for(int i = sweep % 2; i + 1 < nbReplicas; i += 2) { // even and odd pairs in turn
+				if(random.nextDouble() <= swapProbability(states[i], temperatures[i], states[i + 1], temperatures[i + 1])) {
+					Solution state = states[i];
+					states[i] = states[i + 1];
+					states[i + 1] = state;
+				}
+			}
+		}
+		if(dynamic) CostEvolutionView.displayChart(costs);
+		return bestSolution;
+	}
+
+	/**
+	 * Search method : starts the parallel tempering algorithm
+	 * @param solution (initial random solution)
+	 * @return solution
+	 */
+	public Solution search(Solution solution) {
+		return search(solution, false);
+	}
+
+	/**
+	 * Anneal a replica at a fixed temperature during a sweep
+	 * @param solution (state of the replica, modified)
+	 * @param temperature
+	 * @param random (generator of the replica)
+	 * @param bestCost (cost of the best solution found before the sweep)
+	 * @return best solution found by the replica if it is better than bestCost, null otherwise
+	 */
+	private Solution anneal(Solution solution, double temperature, SplittableRandom random, double bestCost) {
+		Solution bestSolution = null;
+		for(int i = 0; i < iterationsPerSweep && !termination.isInterrupted(); i++) {
+			Neighbor randomNeighbor = getRandomNeighbor(solution, random);
+			if(randomNeighbor == null) // interrupted
+				break;
+			double probability = SimulatedAnnealing.acceptanceProbability(solution.getTotalDistance(), fitness(randomNeighbor), temperature);
+			if(random.nextDouble() <= probability) {
+				Operator operator = randomNeighbor.getOperator();
+				operator.execute(solution, randomNeighbor);
+				if(solution.getTotalDistance() < bestCost) {
+					bestCost = solution.getTotalDistance();
+					bestSolution = solution.copy();
+				}
+			}
+		}
+		return bestSolution;
+	}
+
+	/**
+	 * Get the Metropolis probability of swapping the states of two replicas
+	 * min(1, exp((1/t1 - 1/t2) * (cost1 - cost2))), that is the acceptance probability of the state of
+	 * the hot replica by the cold one at the temperature t1 * t2 / (t2 - t1)
+	 * @param cold (state of the cold replica)
+	 * @param t1 (temperature of the cold replica)
+	 * @param hot (state of the hot replica)
+	 * @param t2 (temperature of the hot replica, t2 > t1)
+	 * @return probability
+	 */
+	private static double swapProbability(Solution cold, double t1, Solution hot, double t2) {
+		return SimulatedAnnealing.acceptanceProbability(cold.getTotalDistance(), hot.getTotalDistance(), t1 * t2 / (t2 - t1));
+	}
+
+	/**
+	 * Get the geometric ladder of temperatures (from the coldest to the hottest)
+	 * @param initialTemperature (temperature of the hottest replica)
+	 * @return temperatures
+	 */
+	private double[] getTemperatures(double initialTemperature) {
+		double maxTemperature = Math.max(initialTemperature, finalTemperature * 2);
+		double ratio = Math.pow(maxTemperature / finalTemperature, 1.0 / (nbReplicas - 1));
+		double[] temperatures = new double[nbReplicas];
+		temperatures[0] = finalTemperature;
+		for(int i = 1; i < nbReplicas; i++)
+			temperatures[i] = temperatures[i - 1] * ratio;
+		return temperatures;
+	}
+}
@@ -0,0 +1,167 @@
+package algorithm;
+
+import model.Solution;
+import view.CostEvolutionView;
+import view.GraphView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongFunction;
+
+/**
+ * Portfolio class : runs a mix of algorithms in parallel under a wall-clock budget
+ * <p>
+ * Each worker runs its algorithm from the incumbent (the best solution found by all the workers),
+ * publishes its result if it is better and starts again until the budget is spent. The incumbent is
+ * an atomic reference replaced by compare-and-set, the solutions published are never modified again.
+ * The workers and their neighborhood scans share a dedicated fork-join pool.
+ * The runs get a termination linked to the one of the portfolio, so they are interrupted at the end of the budget
+ * or when the portfolio is cancelled. The iterations of the portfolio (stagnation) are its refreshes.
+ * @author Julian DEGUT
+ */
+public class Portfolio extends VRPTW {
+
+	private static final long REFRESH_TIME = 100;
+	private final long budget;
+	private final int nbWorkers;
+	private final List<LongFunction<VRPTW>> algorithms;
+	private final AtomicReference<Solution> incumbent;
+
+	/**
+	 * Constructor (default mix of algorithms on all the cores, random run seed)
+	 * @param budget (milliseconds)
+	 */
+	public Portfolio(long budget) {
+		this(budget, Runtime.getRuntime().availableProcessors(), new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Constructor (default mix of algorithms : SimulatedAnnealing, Tabu, HillClimbing, Randomizer)
+	 * @param budget (milliseconds)
+	 * @param nbWorkers
+	 * @param seed (run seed)
+	 */
+	public Portfolio(long budget, int nbWorkers, long seed) {
+		this(budget, nbWorkers, List.of(
+				s -> new SimulatedAnnealing(0.01, 1000, 0.9, s),
+				s -> new Tabu(10, 500, 100, s),
+				s -> new HillClimbing(100, s),
+				s -> new Randomizer(20000, s)
+		), seed);
+	}
+
+	/**
+	 * Constructor
+	 * @param budget (milliseconds)
+	 * @param nbWorkers
+	 * @param algorithms (algorithms created from a run seed, given to the workers in turn)
+	 * @param seed (run seed)
+	 */
+	public Portfolio(long budget, int nbWorkers, List<LongFunction<VRPTW>> algorithms, long seed) {
+		super(seed);
+		if(nbWorkers < 1 || algorithms.isEmpty())
+			throw new IllegalArgumentException("A portfolio needs at least one worker and one algorithm");
+		this.budget = budget;
+		this.nbWorkers = nbWorkers;
+		this.algorithms = List.copyOf(algorithms);
+		this.incumbent = new AtomicReference<>();
+		super.costs = new ArrayList<>();
+	}
+
+	/**
+	 * Search method : starts the workers and waits for the end of the budget
+	 * @param solution (initial random solution)
+	 * @param dynamic (true if the graph is displayed & refreshed)
+	 * @return solution
+	 */
+	public Solution search(Solution solution, boolean dynamic) {
+		if(dynamic) super.graphView = new GraphView(solution);
+		super.costs.add(solution.getTotalDistance());
+		incumbent.set(solution.copy());
+		Termination linked = new Termination(termination, budget);
+		ForkJoinPool workers = new ForkJoinPool(nbWorkers);
+		List<ForkJoinTask<?>> tasks = new ArrayList<>(nbWorkers);
+		for(int i = 0; i < nbWorkers; i++) {
+			LongFunction<VRPTW> algorithm = algorithms.get(i % algorithms.size());
+			long workerSeed = random.nextLong();
+			tasks.add(workers.submit(() -> work(algorithm, workerSeed, workers, linked)));
+		}
+		try {
+			Solution displayed = incumbent.get();
+			while(!tasks.stream().allMatch(ForkJoinTask::isDone)) {
+				Thread.sleep(REFRESH_TIME);
+				if(!termination.next())
+					linked.cancel();
+				Solution best = incumbent.get();
+				if(best != displayed) {
+					displayed = best;
+					termination.newBest(best);
+					super.costs.add(best.getTotalDistance());
+					if(dynamic) graphView.update(best);
+				}
+			}
+			for(ForkJoinTask<?> task : tasks)
+				task.join();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			workers.shutdownNow();
+		}
+		if(dynamic) CostEvolutionView.displayChart(costs);
+		return incumbent.get();
+	}
+
+	/**
+	 * Search method : starts the workers and waits for the end of the budget
+	 * @param solution (initial random solution)
+	 * @return solution
+	 */
+	public Solution search(Solution solution) {
+		return search(solution, false);
+	}
+
+	/**
+	 * Get the best solution found so far (can be called while searching, must not be modified)
+	 * @return incumbent
+	 */
+	public Solution getIncumbent() {
+		return incumbent.get();
+	}
+
+	/**
+	 * Work method : runs an algorithm from the incumbent until the portfolio is interrupted
+	 * @param algorithm
+	 * @param seed (seed of the worker)
+	 * @param pool (pool of the workers, used by the neighborhood scans)
+	 * @param linked (termination of the portfolio with its budget)
+	 */
+	private void work(LongFunction<VRPTW> algorithm, long seed, ForkJoinPool pool, Termination linked) {
+		SplittableRandom random = new SplittableRandom(seed);
+		while(!linked.isInterrupted()) {
+			VRPTW run = algorithm.apply(random.nextLong());
+			run.setPool(pool);
+			Solution solution = run.search(incumbent.get().copy(), new Termination(linked, Termination.UNLIMITED));
+			termination.evaluate(run.getTermination().getEvaluations());
+			publish(solution);
+		}
+	}
+
+	/**
+	 * Publish a solution : it replaces the incumbent if it is better
+	 * @param solution (not modified afterwards)
+	 * @return true if the incumbent was replaced
+	 */
+	private boolean publish(Solution solution) {
+		Solution best = incumbent.get();
+		while(solution.getTotalDistance() < best.getTotalDistance()) {
+			if(incumbent.compareAndSet(best, solution))
+				return true;
+			best = incumbent.get();
+		}
+		return false;
+	}
+}
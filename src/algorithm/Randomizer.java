@@ -7,6 +7,7 @@ import view.CostEvolutionView;
 import view.GraphView;
 
 import java.util.ArrayList;
+import java.util.SplittableRandom;
 
 /**
  * Randomizer class : implements the Randomizer algorithm
@@ -16,10 +17,20 @@ public class Randomizer extends VRPTW {
 	private final int maxIterations;
 
 	/**
-	 * Constructor
+	 * Constructor (random run seed)
 	 * @param maxIterations
 	 */
 	public Randomizer(int maxIterations) {
+		this(maxIterations, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Constructor
+	 * @param maxIterations
+	 * @param seed (run seed)
+	 */
+	public Randomizer(int maxIterations, long seed) {
+		super(seed);
 		this.maxIterations = maxIterations;
 		super.costs = new ArrayList<>();
 	}
@@ -34,11 +45,14 @@ public class Randomizer extends VRPTW {
 		if(dynamic) super.graphView = new GraphView(solution);
 		super.costs.add(solution.getTotalDistance());
 		Neighbor randomNeighbor;
-		for(int i = 0; i<maxIterations; i++) {
+		for(int i = 0; i<maxIterations && termination.next(); i++) {
 			randomNeighbor = getRandomNeighbor(solution);
+			if(randomNeighbor == null) // interrupted
+				break;
 			if(fitness(randomNeighbor) < solution.getTotalDistance()) {
 				Operator operator = randomNeighbor.getOperator();
 				operator.execute(solution, randomNeighbor);
+				termination.newBest(solution);
 				if(dynamic) graphView.update(solution);
 				super.costs.add(solution.getTotalDistance());
 			}
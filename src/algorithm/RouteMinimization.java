@@ -0,0 +1,436 @@
+package algorithm;
+
+import data.Data;
+import model.Solution;
+import model.Vehicle;
+import view.CostEvolutionView;
+import view.GraphView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * RouteMinimization class : implements a route elimination phase with ejection chains (Nagata & Braysy)
+ * <p>
+ * A route is removed and its clients are put in an ejection pool, then each client of the pool is inserted :
+ * at its cheapest feasible position, or by an ejection chain (the client takes the place of a client of another
+ * route which is inserted feasibly elsewhere), or by a squeeze (inserted at the least violating position, the route
+ * is repaired by moving its clients to other routes), or else by ejecting up to MAX_EJECTIONS clients of a route
+ * back to the pool. The ejected clients minimize the sum of their penalties, the number of times each client needed
+ * an ejection, so that the search does not cycle on the same clients. A route is eliminated when the pool is empty,
+ * an attempt is given up after maxIterations insertions and another route is tried, until the lower bound of the number
+ * of vehicles is reached, the termination is interrupted or MAX_FAILURES_PER_ROUTE attempts per route have failed
+ * in a row.
+ * The feasibility of the insertions & ejections is checked with the forward & backward data of the vehicles,
+ * the distance is not optimized (the phase is meant to be followed by another search).
+ * @author Julian DEGUT
+ */
+public class RouteMinimization extends VRPTW {
+
+	private static final int MAX_EJECTIONS = 2;
+	private static final int MAX_FAILURES_PER_ROUTE = 10;
+	private final int maxIterations;
+
+	/**
+	 * Constructor (random run seed)
+	 * @param maxIterations (insertions per route elimination attempt)
+	 */
+	public RouteMinimization(int maxIterations) {
+		this(maxIterations, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Constructor
+	 * @param maxIterations (insertions per route elimination attempt)
+	 * @param seed (run seed)
+	 */
+	public RouteMinimization(int maxIterations, long seed) {
+		super(seed);
+		this.maxIterations = maxIterations;
+		super.costs = new ArrayList<>();
+	}
+
+	/**
+	 * Search method : starts the route minimization
+	 * @param solution (initial solution)
+	 * @param dynamic (true if the graph is displayed & refreshed)
+	 * @return solution
+	 */
+	public Solution search(Solution solution, boolean dynamic) {
+		if(dynamic) super.graphView = new GraphView(solution);
+		super.costs.add(solution.getTotalDistance());
+		int minVehicles = Math.max(1, getMinVehicles(solution.getData()));
+		Solution bestSolution = solution.copy();
+		int failures = 0;
+		while(bestSolution.getNbVehicles() > minVehicles && failures < MAX_FAILURES_PER_ROUTE * bestSolution.getNbVehicles()
+				&& termination.next()) {
+			Solution current = bestSolution.copy();
+			failures++;
+			if(removeRoute(current)) {
+				failures = 0;
+				if(!current.isConsistent())
+					throw new IllegalStateException("Route elimination left an inconsistent solution");
+				bestSolution = current;
+				termination.newBest(bestSolution);
+				super.costs.add(bestSolution.getTotalDistance());
+				if(dynamic) graphView.update(bestSolution);
+			}
+		}
+		if(dynamic) CostEvolutionView.displayChart(costs);
+		return bestSolution;
+	}
+
+	/**
+	 * Search method : starts the route minimization
+	 * @param solution (initial solution)
+	 * @return solution
+	 */
+	public Solution search(Solution solution) {
+		return search(solution, false);
+	}
+
+	/**
+	 * Try to eliminate a random route of the solution
+	 * @param solution (modified, not valid if the attempt fails)
+	 * @return true if the route has been eliminated, false otherwise
+	 */
+	private boolean removeRoute(Solution solution) {
+		Data data = solution.getData();
+		Vehicle removed = solution.getVehicles().get(random.nextInt(solution.getNbVehicles()));
+		int[] pool = new int[data.getNbVertices()];
+		int size = removed.size();
+		System.arraycopy(removed.toArray(), 0, pool, 0, size);
+		solution.removeVehicle(removed);
+		int[] penalties = new int[data.getNbVertices()];
+		Arrays.fill(penalties, 1);
+		for(int i = 0; size > 0; i++) {
+			if(i >= maxIterations || termination.isInterrupted())
+				return false;
+			int swap = random.nextInt(size); // the pool is drawn at random
+			int client = pool[swap];
+			pool[swap] = pool[--size];
+			termination.evaluate(1); // a reinsertion counts as one move
+			if(insert(solution, client, null) || chain(solution, client) || squeeze(solution, client))
+				continue;
+			penalties[client]++;
+			int[] ejected = eject(solution, client, penalties);
+			if(ejected == null)
+				return false;
+			for(int other : ejected)
+				pool[size++] = other;
+		}
+		return true;
+	}
+
+	/**
+	 * Insert a client at its cheapest feasible position
+	 * @param solution
+	 * @param client
+	 * @param exclude (vehicle not considered, null if none)
+	 * @return true if the client has been inserted, false if it does not fit anywhere
+	 */
+	private static boolean insert(Solution solution, int client, Vehicle exclude) {
+		Vehicle bestVehicle = null;
+		int bestPosition = -1;
+		double bestCost = Vehicle.INFEASIBLE;
+		for(Vehicle vehicle : solution.getVehicles()) {
+			if(vehicle == exclude)
+				continue;
+			for(int position = 1; position <= vehicle.size() + 1; position++) {
+				double cost = vehicle.getInsertionCost(client, position);
+				if(cost < bestCost) {
+					bestCost = cost;
+					bestVehicle = vehicle;
+					bestPosition = position;
+				}
+			}
+		}
+		if(bestVehicle == null)
+			return false;
+		bestVehicle.insert(bestPosition, client);
+		return true;
+	}
+
+	/**
+	 * Test if a client fits somewhere (without inserting it)
+	 * @param solution
+	 * @param client
+	 * @param exclude (vehicle not considered)
+	 * @return true if the client has a feasible insertion
+	 */
+	private static boolean fits(Solution solution, int client, Vehicle exclude) {
+		for(Vehicle vehicle : solution.getVehicles()) {
+			if(vehicle == exclude)
+				continue;
+			for(int position = 1; position <= vehicle.size() + 1; position++) {
+				if(vehicle.getInsertionCost(client, position) != Vehicle.INFEASIBLE)
+					return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Ejection chain of length 2 : insert a client in place of a client of a route, inserted feasibly in another one
+	 * @param solution
+	 * @param client
+	 * @return true if the client has been inserted, false otherwise
+	 */
+	private static boolean chain(Solution solution, int client) {
+		for(Vehicle vehicle : solution.getVehicles()) {
+			Ejection ejection = new Ejection(solution.getData(), vehicle, client, 1, null);
+			ejection.search(solution);
+			if(ejection.bestPosition > 0) {
+				int displaced = vehicle.getVertex(ejection.best[0]);
+				ejection.apply();
+				insert(solution, displaced, vehicle);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Squeeze : insert a client at its least violating position, then move clients of the route to other routes
+	 * (the one leaving the smallest violation each time) until the route is feasible, undone if it fails
+	 * @param solution
+	 * @param client
+	 * @return true if the client has been inserted, false otherwise
+	 */
+	private static boolean squeeze(Solution solution, int client) {
+		Data data = solution.getData();
+		Vehicle bestVehicle = null;
+		int[] bestRoute = null;
+		double bestViolation = Double.POSITIVE_INFINITY;
+		for(Vehicle vehicle : solution.getVehicles()) {
+			int[] clients = vehicle.toArray();
+			int[] route = new int[clients.length + 1];
+			for(int position = 0; position <= clients.length; position++) {
+				System.arraycopy(clients, 0, route, 0, position);
+				route[position] = client;
+				System.arraycopy(clients, position, route, position + 1, clients.length - position);
+				double violation = violation(data, route, route.length);
+				if(violation < bestViolation) {
+					bestViolation = violation;
+					bestVehicle = vehicle;
+					bestRoute = route.clone();
+				}
+			}
+		}
+		if(bestVehicle == null)
+			return false;
+		int[] original = bestVehicle.toArray();
+		List<Vehicle> changed = new ArrayList<>();
+		List<int[]> routes = new ArrayList<>();
+		int length = bestRoute.length;
+		while(bestViolation > 0) {
+			int bestRemoval = -1;
+			int[] route = new int[length];
+			for(int i = 0; i < length; i++) {
+				if(bestRoute[i] == client)
+					continue;
+				System.arraycopy(bestRoute, 0, route, 0, i);
+				System.arraycopy(bestRoute, i + 1, route, i, length - i - 1);
+				double violation = violation(data, route, length - 1);
+				if(violation < bestViolation && fits(solution, bestRoute[i], bestVehicle)) {
+					bestViolation = violation;
+					bestRemoval = i;
+				}
+			}
+			if(bestRemoval < 0) { // undo
+				for(int i = changed.size() - 1; i >= 0; i--) {
+					Vehicle vehicle = changed.get(i);
+					vehicle.replace(1, vehicle.size(), routes.get(i), 0, routes.get(i).length);
+				}
+				bestVehicle.replace(1, original.length, original, 0, original.length); // lookups of the clients moved back
+				return false;
+			}
+			int removed = bestRoute[bestRemoval];
+			System.arraycopy(bestRoute, bestRemoval + 1, bestRoute, bestRemoval, length - bestRemoval - 1);
+			length--;
+			for(Vehicle vehicle : solution.getVehicles()) { // saved for the undo
+				if(vehicle != bestVehicle) {
+					changed.add(vehicle);
+					routes.add(vehicle.toArray());
+				}
+			}
+			insert(solution, removed, bestVehicle);
+		}
+		bestVehicle.replace(1, original.length, bestRoute, 0, length);
+		return true;
+	}
+
+	/**
+	 * Get the violation of a route : time warp (arrival after the due time, the vehicle goes back in time to it)
+	 * plus capacity excess
+	 * @param data
+	 * @param route (clients)
+	 * @param length
+	 * @return violation (0 if the route is feasible)
+	 */
+	private static double violation(Data data, int[] route, int length) {
+		double violation = 0;
+		double departure = data.getReadyTime(0);
+		int previous = 0;
+		int load = 0;
+		for(int i = 0; i <= length; i++) {
+			int vertex = i < length ? route[i] : 0;
+			double arrival = departure + data.getTravelTime(previous, vertex);
+			if(arrival > data.getDueTime(vertex)) {
+				violation += arrival - data.getDueTime(vertex);
+				arrival = data.getDueTime(vertex);
+			}
+			departure = Math.max(arrival, data.getReadyTime(vertex)) + data.getServiceTime(vertex);
+			load += data.getDemand(vertex);
+			previous = vertex;
+		}
+		return violation + Math.max(0, load - data.getMaxQuantity());
+	}
+
+	/**
+	 * Insert a client by ejecting clients of a route, the ejection minimizing the sum of the penalties of the ejected
+	 * clients over all the routes (then the number of ejected clients)
+	 * @param solution
+	 * @param client
+	 * @param penalties
+	 * @return clients ejected, null if the client cannot be inserted with MAX_EJECTIONS ejections
+	 */
+	private static int[] eject(Solution solution, int client, int[] penalties) {
+		Ejection best = null;
+		for(Vehicle vehicle : solution.getVehicles()) {
+			Ejection ejection = new Ejection(solution.getData(), vehicle, client, MAX_EJECTIONS, penalties);
+			if(best != null) {
+				ejection.bestPenalty = best.bestPenalty;
+				ejection.bestCount = best.bestCount;
+			}
+			ejection.search(null);
+			if(ejection.bestPosition > 0)
+				best = ejection;
+		}
+		if(best == null)
+			return null;
+		int[] ejected = new int[best.bestCount];
+		for(int i = 0; i < ejected.length; i++)
+			ejected[i] = best.vehicle.getVertex(best.best[i]);
+		best.apply();
+		return ejected;
+	}
+
+	/**
+	 * Ejection class : depth-first search of the insertions of a client in a route ejecting up to maxEjections clients
+	 * <p>
+	 * The route is walked forward with the departure times : a branch is cut as soon as a due time is exceeded,
+	 * and it ends as soon as the client is inserted and the rest of the route can be reached (backward data).
+	 */
+	private static class Ejection {
+		private final Vehicle vehicle;
+		private final Data data;
+		private final int client;
+		private final int maxEjections;
+		private final int[] penalties;
+		private final int[] ejected;
+		private final int[] best;
+		private int bestCount;
+		private int bestPosition;
+		private int bestPenalty;
+		private int position;
+		private Solution chain;
+
+		/**
+		 * Constructor
+		 * @param data
+		 * @param vehicle
+		 * @param client (to insert)
+		 * @param maxEjections
+		 * @param penalties (null to eject any client, the first ejection found is kept)
+		 */
+		Ejection(Data data, Vehicle vehicle, int client, int maxEjections, int[] penalties) {
+			this.vehicle = vehicle;
+			this.data = data;
+			this.client = client;
+			this.maxEjections = maxEjections;
+			this.penalties = penalties;
+			this.ejected = new int[maxEjections];
+			this.best = new int[maxEjections];
+			this.bestPosition = -1;
+			this.bestPenalty = Integer.MAX_VALUE;
+		}
+
+		/**
+		 * Search the ejections
+		 * @param chain (solution in which the ejected client must fit, in another route, null if not needed)
+		 */
+		void search(Solution chain) {
+			this.chain = chain;
+			search(1, vehicle.getVertex(0), vehicle.getDeparture(0), 0, 0,
+					vehicle.getLoad() + data.getDemand(client));
+		}
+
+		/**
+		 * Search the ejections from a position of the route
+		 * @param i (position of the route)
+		 * @param previous (last vertex visited)
+		 * @param departure (from the previous vertex)
+		 * @param count (number of clients ejected)
+		 * @param penalty (sum of the penalties of the clients ejected)
+		 * @param load (load of the route with the client, without the clients ejected)
+		 */
+		private void search(int i, int previous, double departure, int count, int penalty, int load) {
+			if(penalty > bestPenalty || (penalty == bestPenalty && count >= bestCount))
+				return;
+			boolean inserted = position > 0;
+			if(inserted && load <= vehicle.getMaxCapacity() && vehicle.canReach(previous, departure, i)) {
+				if(chain != null && !fits(chain, vehicle.getVertex(ejected[0]), vehicle))
+					return;
+				bestPenalty = chain != null ? -1 : penalty; // a chain stops at the first one
+				bestCount = count;
+				bestPosition = position;
+				System.arraycopy(ejected, 0, best, 0, count);
+				return;
+			}
+			if(inserted && count == maxEjections)
+				return; // the rest of the route is unchanged
+			if(!inserted) {
+				double time = Vehicle.visit(data, previous, departure, client);
+				if(time != Vehicle.INFEASIBLE) {
+					position = i;
+					search(i, client, time, count, penalty, load);
+					position = 0;
+				}
+			}
+			if(i > vehicle.size())
+				return;
+			int vertex = vehicle.getVertex(i);
+			if(count < maxEjections) {
+				ejected[count] = i;
+				search(i + 1, previous, departure, count + 1, penalty + (penalties == null ? 0 : penalties[vertex]),
+						load - data.getDemand(vertex));
+			}
+			double time = Vehicle.visit(data, previous, departure, vertex);
+			if(time != Vehicle.INFEASIBLE)
+				search(i + 1, vertex, time, count, penalty, load);
+		}
+
+		/**
+		 * Apply the best ejection found to the route
+		 */
+		void apply() {
+			int[] route = new int[vehicle.size() + 1 - bestCount];
+			int length = 0;
+			int e = 0;
+			for(int i = 1; i <= vehicle.size() + 1; i++) {
+				if(i == bestPosition)
+					route[length++] = client;
+				if(i > vehicle.size())
+					break;
+				if(e < bestCount && best[e] == i)
+					e++;
+				else
+					route[length++] = vehicle.getVertex(i);
+			}
+			vehicle.replace(1, vehicle.size(), route, 0, length);
+		}
+	}
+}
@@ -8,6 +8,7 @@ import model.*;
 import view.GraphView;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class RoutingSolver {
@@ -26,9 +27,7 @@ public class RoutingSolver {
 	) {}
 
 	private static DataModel build(Data data) {
-		List<Vertex> vertices = new ArrayList<>();
-		vertices.add(data.getDepot());
-		vertices.addAll(data.getClients());
+		List<Vertex> vertices = data.getVertices();
 		int nbVehicles = 100;
 		int depotIndex = 0;
 		int capacityMax = data.getMaxQuantity();
@@ -51,14 +50,18 @@ public class RoutingSolver {
 				demands[i] = client.getDemand();
 			}
 			for (int j = 0; j < vertices.size(); j++) {
-				Vertex to = vertices.get(j);
-				distances[i][j] = (long) (from.getDistance(to) * PRECISION_COEFF);
+				distances[i][j] = (long) (data.getDistance(i, j) * PRECISION_COEFF);
 			}
 		}
 		return new DataModel(vertices, distances, timeWindows, nbVehicles, depotIndex, demands, capacityMax, serviceTime);
 	}
 
 	public static void solve(Data data) {
+		solve(data, null);
+	}
+
+	// warm start from the best known solution of the store (null for none), the solution found is recorded in it
+	public static void solve(Data data, SolutionStore store) {
 		Loader.loadNativeLibraries();
 		DataModel dataModel = build(data);
 		int nbNodes = dataModel.distances.length;
@@ -114,19 +117,33 @@ public class RoutingSolver {
 				.setTimeLimit(Duration.newBuilder().setSeconds(10).build())
 				.build();
 
-		Assignment solution = routing.solveWithParameters(searchParameters);
-
-		if(solution != null)
-			printSolution(data, dataModel, routing, manager, solution);
-		else
+		Solution stored = store != null ? store.load(data) : null;
+		Assignment solution;
+		if(stored != null && stored.getNbVehicles() <= nbVehicles) {
+			long[][] routes = new long[stored.getNbVehicles()][];
+			for (int i = 0; i < routes.length; i++)
+				routes[i] = Arrays.stream(stored.getVehicles().get(i).toArray()).mapToLong(manager::nodeToIndex).toArray();
+			Assignment initial = routing.readAssignmentFromRoutes(routes, true);
+			solution = initial != null
+					? routing.solveFromAssignmentWithParameters(initial, searchParameters)
+					: routing.solveWithParameters(searchParameters);
+		} else
+			solution = routing.solveWithParameters(searchParameters);
+
+		if(solution != null) {
+			Solution found = printSolution(data, dataModel, routing, manager, solution);
+			if(store != null) // the unused vehicles are not stored
+				store.save(new Solution(data, found.getVehicles().stream().filter(v -> v.size() > 0)
+						.map(v -> new Vehicle(data, v.toArray())).toList()), RoutingSolver.class.getSimpleName(), SolutionStore.NO_SEED);
+		} else
 			System.out.println("Can't find a solution");
 	}
 
-	static void printSolution(Data data, DataModel dataModel, RoutingModel routing, RoutingIndexManager manager, Assignment solution) {
+	static Solution printSolution(Data data, DataModel dataModel, RoutingModel routing, RoutingIndexManager manager, Assignment solution) {
 		List<Vehicle> vehicles = new ArrayList<>();
 		int nbVehicles = 0;
 		for (int i = 0; i < dataModel.nbVehicles; ++i) {
-			Vehicle v = new Vehicle((Depot) dataModel.vertices.get(dataModel.depotIndex), dataModel.capacityMax);
+			Vehicle v = new Vehicle(data);
 			long index = routing.start(i);
 			while (!routing.isEnd(index)) {
 				int nodeIndex = manager.indexToNode(index);
@@ -141,6 +158,7 @@ public class RoutingSolver {
 		new GraphView(s);
 		System.out.println("Number of vehicles used : " + nbVehicles);
 		System.out.println("Total cost of the solution : " + s.getTotalDistance());
+		return s;
 	}
 
 }
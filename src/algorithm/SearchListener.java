@@ -0,0 +1,19 @@
+package algorithm;
+
+import model.Solution;
+
+/**
+ * SearchListener interface : notified each time a search finds a new best solution
+ * @author Julian DEGUT
+ */
+@FunctionalInterface
+public interface SearchListener {
+
+	/**
+	 * New best method : called by the search thread (by the workers for a portfolio)
+	 * @param solution (new best solution, must not be modified, copy it to keep it)
+	 * @param elapsedTime (milliseconds since the start of the search)
+	 * @param evaluations (moves evaluated since the start of the search)
+	 */
+	void onNewBest(Solution solution, long elapsedTime, long evaluations);
+}
@@ -8,6 +8,7 @@ import view.GraphView;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * SimulatedAnnealing class : implements the Simulated Annealing algorithm
@@ -19,12 +20,24 @@ public class SimulatedAnnealing extends VRPTW {
 	private final double coolingRate;
 
 	/**
-	 * Constructor
+	 * Constructor (random run seed)
 	 * @param finalTemperature
 	 * @param maxIterationsPerTemp
 	 * @param coolingRate
 	 */
 	public SimulatedAnnealing(double finalTemperature, int maxIterationsPerTemp, double coolingRate) {
+		this(finalTemperature, maxIterationsPerTemp, coolingRate, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Constructor
+	 * @param finalTemperature
+	 * @param maxIterationsPerTemp
+	 * @param coolingRate
+	 * @param seed (run seed)
+	 */
+	public SimulatedAnnealing(double finalTemperature, int maxIterationsPerTemp, double coolingRate, long seed) {
+		super(seed);
 		this.finalTemperature = finalTemperature;
 		this.maxIterationsPerTemp = maxIterationsPerTemp;
 		this.coolingRate = coolingRate;
@@ -40,18 +53,29 @@ public class SimulatedAnnealing extends VRPTW {
 	public Solution search(Solution solution, boolean dynamic) {
 		if(dynamic) super.graphView = new GraphView(solution);
 		super.costs.add(solution.getTotalDistance());
-		double temperature = getInitialTemperature(solution);
+		double temperature = getInitialTemperature(this, solution);
 		System.out.println("Initial temperature: " + temperature);
 		Solution bestSolution = solution.copy();
-		while (temperature > finalTemperature) {
+		boolean running = true;
+		while (running && temperature > finalTemperature) {
 			for(int i=0; i<maxIterationsPerTemp; i++) {
+				running = termination.next();
+				if(!running)
+					break;
 				Neighbor randomNeighbor = getRandomNeighbor(solution);
+				if(randomNeighbor == null) { // interrupted
+					running = false;
+					break;
+				}
 				double probability = acceptanceProbability(solution.getTotalDistance(), fitness(randomNeighbor), temperature);
 				if(random.nextDouble() <= probability) {
 					Operator operator = randomNeighbor.getOperator();
 					operator.execute(solution, randomNeighbor);
 					super.costs.add(solution.getTotalDistance());
-					bestSolution = solution.getTotalDistance() < bestSolution.getTotalDistance() ? solution.copy() : bestSolution;
+					if(solution.getTotalDistance() < bestSolution.getTotalDistance()) {
+						bestSolution = solution.copy();
+						termination.newBest(bestSolution);
+					}
 				}
 			}
 			temperature *= coolingRate;
@@ -77,7 +101,7 @@ public class SimulatedAnnealing extends VRPTW {
 	 * @param temperature
 	 * @return probability
 	 */
-	private double acceptanceProbability(double currentCost, double newCost, double temperature) {
+	static double acceptanceProbability(double currentCost, double newCost, double temperature) {
 		if(newCost < currentCost) {
 			return 1.0;
 		}
@@ -86,14 +110,16 @@ public class SimulatedAnnealing extends VRPTW {
 
 	/**
 	 * Initial temperature method : returns the initial temperature
+	 * (a worsening move of the neighborhood of the solution is accepted with a probability of 0.8 at least)
+	 * @param algorithm (algorithm generating the neighborhood)
 	 * @param solution
 	 * @return temperature
 	 */
-	private double getInitialTemperature(Solution solution) {
-		List<Neighbor> neighborhood = getNeighborhood(solution, 100);
+	static double getInitialTemperature(VRPTW algorithm, Solution solution) {
+		List<Neighbor> neighborhood = algorithm.getNeighborhood(solution, 100);
 		double maxDelta = 0;
 		for(Neighbor neighbor : neighborhood) {
-			double delta = fitness(neighbor) - solution.getTotalDistance();
+			double delta = algorithm.fitness(neighbor) - solution.getTotalDistance();
 			if(delta > maxDelta) {
 				maxDelta = delta;
 			}
@@ -3,30 +3,46 @@ package algorithm;
 import algorithm.operator.Operator;
 import model.Neighbor;
 import model.Solution;
+import model.Vehicle;
 import view.CostEvolutionView;
 import view.GraphView;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * Tabu class : implements the Tabu algorithm
+ * <p>
+ * The arcs removed by a move are tabu for tenure iterations (a move creating one of them is skipped)
+ * unless the move improves the best solution found (aspiration).
  * @author Julian DEGUT
  */
 public class Tabu extends VRPTW {
 
-	private final int tabuListSize;
+	private final int tenure;
 	private final int maxIterations;
 	private final int maxNeighbors;
 
+	/**
+	 * Constructor (random run seed)
+	 * @param tenure (number of iterations an arc removed stays tabu)
+	 * @param maxIterations
+	 * @param maxNeighbors
+	 */
+	public Tabu(int tenure, int maxIterations, int maxNeighbors) {
+		this(tenure, maxIterations, maxNeighbors, new SplittableRandom().nextLong());
+	}
+
 	/**
 	 * Constructor
-	 * @param tabuListSize
+	 * @param tenure (number of iterations an arc removed stays tabu)
 	 * @param maxIterations
+	 * @param maxNeighbors
+	 * @param seed (run seed)
 	 */
-	public Tabu(int tabuListSize, int maxIterations, int maxNeighbors) {
-		this.tabuListSize = tabuListSize;
+	public Tabu(int tenure, int maxIterations, int maxNeighbors, long seed) {
+		super(seed);
+		this.tenure = tenure;
 		this.maxIterations = maxIterations;
 		this.maxNeighbors = maxNeighbors;
 		super.costs = new ArrayList<>();
@@ -42,29 +58,29 @@ public class Tabu extends VRPTW {
 		if(dynamic) super.graphView = new GraphView(solution);
 		super.costs.add(solution.getTotalDistance());
 		long tabuBlocked = 0;
-		LinkedList<String> tabuList = new LinkedList<>();
+		TabuMemory memory = new TabuMemory(solution.getData().getNbVertices(), tenure);
 		Solution bestSolution = solution.copy();
-		for(int i=0; i<maxIterations; i++) {
-			List<Neighbor> neighborhood = getNeighborhood(solution, maxNeighbors);
-			if(neighborhood.size() > 0) {
-				tabuBlocked += neighborhood.stream()
-						.filter(neighbor -> tabuList.contains(neighbor.toString()))
-						.count();
-				Neighbor bestNeighbor = neighborhood.stream()
-						.filter(neighbor -> !tabuList.contains(neighbor.toString()))
-						.min((n1, n2) -> Double.compare(fitness(n1), fitness(n2)))
-						.orElse(neighborhood.get(0));
-				if(fitness(bestNeighbor) > solution.getTotalDistance())
-					tabuList.addFirst(bestNeighbor.toString());
+		for(int i=0; i<maxIterations && termination.next(); i++) {
+			double bestCost = bestSolution.getTotalDistance();
+			NeighborReducer reducer = reduceNeighborhood(solution, maxNeighbors, 1,
+					neighbor -> fitness(neighbor) < bestCost || !memory.isTabu(solution, neighbor));
+			Neighbor bestNeighbor = reducer.getBest();
+			if(bestNeighbor != null) {
+				tabuBlocked += reducer.getRejected();
+				Vehicle vehicle1 = solution.getVehicles().get(bestNeighbor.getVehicle1());
+				Vehicle vehicle2 = bestNeighbor.getVehicle2() < 0 ? vehicle1 : solution.getVehicles().get(bestNeighbor.getVehicle2());
+				int[][] before = {vehicle1.toArray(0, vehicle1.size() + 1), vehicle2.toArray(0, vehicle2.size() + 1)};
 				Operator operator = bestNeighbor.getOperator();
 				operator.execute(solution, bestNeighbor);
+				memory.forbidRemoved(before, new int[][] {vehicle1.toArray(0, vehicle1.size() + 1), vehicle2.toArray(0, vehicle2.size() + 1)});
+				memory.nextIteration();
 				super.costs.add(solution.getTotalDistance());
 
-				bestSolution = solution.getTotalDistance() < bestSolution.getTotalDistance() ? solution.copy() : bestSolution;
+				if(solution.getTotalDistance() < bestSolution.getTotalDistance()) {
+					bestSolution = solution.copy();
+					termination.newBest(bestSolution);
+				}
 				if(dynamic) graphView.update(bestSolution);
-
-				if(tabuList.size() > tabuListSize)
-					tabuList.removeLast();
 			}
 		}
 		System.out.println("Tabu blocked: " + tabuBlocked);
@@ -0,0 +1,184 @@
+package algorithm;
+
+import algorithm.operator.Operator;
+import model.Neighbor;
+import model.Solution;
+
+import java.util.Arrays;
+
+/**
+ * TabuMemory class : remembers the arcs recently removed from a solution until their expiry iteration
+ * <p>
+ * A move is tabu if it creates one of these arcs. The arcs (from, to) are stored as primitive keys
+ * in an open-addressing hash table with their expiry stamp, so a test is O(1) and nothing has to be
+ * removed when an arc expires : the expired entries are dropped when the table is rebuilt.
+ * @author Julian DEGUT
+ */
+public class TabuMemory {
+
+	private static final int EMPTY = -1;
+	private static final ThreadLocal<int[]> ARCS = ThreadLocal.withInitial(() -> new int[2 * Operator.MAX_ARCS]); // scratch buffer of each thread
+	private final int nbVertices;
+	private final int tenure;
+	private final int[] next;
+	private int[] keys;
+	private int[] expiries;
+	private int used;
+	private int iteration;
+
+	/**
+	 * Constructor
+	 * @param nbVertices (number of vertices of the data)
+	 * @param tenure (number of iterations an arc stays tabu)
+	 */
+	public TabuMemory(int nbVertices, int tenure) {
+		this.nbVertices = nbVertices;
+		this.tenure = tenure;
+		this.next = new int[nbVertices];
+		this.keys = new int[16];
+		this.expiries = new int[16];
+		Arrays.fill(keys, EMPTY);
+		this.used = 0;
+		this.iteration = 0;
+	}
+
+	/**
+	 * Go to the next iteration (the arcs forbidden tenure iterations ago expire)
+	 */
+	public void nextIteration() {
+		iteration++;
+	}
+
+	/**
+	 * Get the current iteration
+	 * @return iteration
+	 */
+	public int getIteration() {
+		return iteration;
+	}
+
+	/**
+	 * Forbid an arc for tenure iterations
+	 * @param from
+	 * @param to
+	 */
+	public void forbid(int from, int to) {
+		if(tenure <= 0)
+			return;
+		int key = from * nbVertices + to;
+		int slot = find(key);
+		if(keys[slot] == EMPTY) {
+			if((used + 1) * 2 > keys.length) {
+				rebuild();
+				slot = find(key);
+			}
+			keys[slot] = key;
+			used++;
+		}
+		expiries[slot] = iteration + tenure;
+	}
+
+	/**
+	 * Test if an arc is tabu
+	 * @param from
+	 * @param to
+	 * @return true if the arc is tabu
+	 */
+	public boolean isTabu(int from, int to) {
+		int slot = find(from * nbVertices + to);
+		return keys[slot] != EMPTY && expiries[slot] > iteration;
+	}
+
+	/**
+	 * Test if a move is tabu (it creates a tabu arc), can be called by several threads
+	 * @param solution
+	 * @param neighbor
+	 * @return true if the move is tabu
+	 */
+	public boolean isTabu(Solution solution, Neighbor neighbor) {
+		int[] arcs = ARCS.get();
+		int count = neighbor.getOperator().getArcs(solution, neighbor, arcs);
+		for(int i = 0; i < count; i++) {
+			if(isTabu(arcs[2 * i], arcs[2 * i + 1]))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Forbid the arcs of the routes before a move that are missing from the routes after it
+	 * (the routes must contain the same clients, depot included at both ends)
+	 * @param before (routes changed by the move, before it)
+	 * @param after (same routes after the move)
+	 */
+	public void forbidRemoved(int[][] before, int[][] after) {
+		for(int[] route : after) {
+			for(int i = 1; i < route.length - 1; i++)
+				next[route[i]] = route[i + 1];
+		}
+		for(int[] route : before) {
+			for(int i = 0; i < route.length - 1; i++) {
+				int from = route[i];
+				int to = route[i + 1];
+				if(from != 0 ? next[from] != to : !isFirst(after, to))
+					forbid(from, to);
+			}
+		}
+	}
+
+	/**
+	 * Test if a vertex is the first one of a route
+	 * @param routes
+	 * @param vertex
+	 * @return true if a route starts with the vertex
+	 */
+	private static boolean isFirst(int[][] routes, int vertex) {
+		for(int[] route : routes) {
+			if(route[1] == vertex)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Find the slot of a key (linear probing)
+	 * @param key
+	 * @return slot of the key, or the empty slot where it would be stored
+	 */
+	private int find(int key) {
+		int mask = keys.length - 1;
+		int hash = key * 0x9E3779B9;
+		int slot = (hash ^ hash >>> 16) & mask;
+		while(keys[slot] != EMPTY && keys[slot] != key)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	/**
+	 * Rebuild the table without the expired arcs (its capacity is doubled if they are still half of it)
+	 */
+	private void rebuild() {
+		int[] oldKeys = keys;
+		int[] oldExpiries = expiries;
+		int live = 0;
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldKeys[i] != EMPTY && oldExpiries[i] > iteration)
+				live++;
+		}
+		int capacity = oldKeys.length;
+		while((live + 1) * 4 > capacity)
+			capacity *= 2;
+		keys = new int[capacity];
+		expiries = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+		used = 0;
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldKeys[i] != EMPTY && oldExpiries[i] > iteration) {
+				int slot = find(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				expiries[slot] = oldExpiries[i];
+				used++;
+			}
+		}
+	}
+}
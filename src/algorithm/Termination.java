@@ -0,0 +1,168 @@
+package algorithm;
+
+import model.Solution;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Termination class : stopping criteria and progress callbacks of a search
+ * <p>
+ * A search stops at its own criteria (iterations, temperature, convergence) or as soon as one of these is met :
+ * the wall-clock budget is spent, maxEvaluations moves have been evaluated, stagnationLimit iterations have been
+ * done without a new best solution, or the search has been cancelled (from any thread). The budget and the
+ * cancellation (isInterrupted) are also checked by the parallel scans of the neighborhoods, so a search stops
+ * in the middle of a scan. A linked termination is also interrupted by its parent (the runs of a portfolio).
+ * @author Julian DEGUT
+ */
+public class Termination {
+
+	/**
+	 * No limit for a criterion
+	 */
+	public static final long UNLIMITED = 0;
+	private final Termination parent;
+	private final long budget;
+	private final long maxEvaluations;
+	private final long stagnationLimit;
+	private final List<SearchListener> listeners;
+	private final LongAdder evaluations;
+	private volatile boolean cancelled;
+	private long start;
+	private long deadline;
+	private long iterations;
+	private long lastImprovement;
+
+	/**
+	 * Constructor (no limit, the search only stops at its own criteria or when it is cancelled)
+	 */
+	public Termination() {
+		this(UNLIMITED, UNLIMITED, UNLIMITED);
+	}
+
+	/**
+	 * Constructor
+	 * @param budget (milliseconds, UNLIMITED if none)
+	 * @param maxEvaluations (UNLIMITED if none)
+	 * @param stagnationLimit (iterations without a new best solution, UNLIMITED if none)
+	 */
+	public Termination(long budget, long maxEvaluations, long stagnationLimit) {
+		this(null, budget, maxEvaluations, stagnationLimit);
+	}
+
+	/**
+	 * Constructor : linked termination, interrupted when its parent is interrupted
+	 * @param parent
+	 * @param budget (milliseconds, UNLIMITED if none)
+	 */
+	public Termination(Termination parent, long budget) {
+		this(parent, budget, UNLIMITED, UNLIMITED);
+	}
+
+	/**
+	 * Constructor
+	 * @param parent (null if none)
+	 * @param budget (milliseconds, UNLIMITED if none)
+	 * @param maxEvaluations (UNLIMITED if none)
+	 * @param stagnationLimit (iterations without a new best solution, UNLIMITED if none)
+	 */
+	private Termination(Termination parent, long budget, long maxEvaluations, long stagnationLimit) {
+		this.parent = parent;
+		this.budget = budget;
+		this.maxEvaluations = maxEvaluations;
+		this.stagnationLimit = stagnationLimit;
+		this.listeners = new CopyOnWriteArrayList<>();
+		this.evaluations = new LongAdder();
+		start();
+	}
+
+	/**
+	 * Start method : starts the clock and resets the counters (called when a search starts)
+	 */
+	public void start() {
+		start = System.nanoTime();
+		deadline = start + TimeUnit.MILLISECONDS.toNanos(budget);
+		evaluations.reset();
+		iterations = 0;
+		lastImprovement = 0;
+	}
+
+	/**
+	 * Cancel the search (thread-safe, it stops at the next check)
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Test if the search has been cancelled or its budget is spent (thread-safe)
+	 * @return true if the search must stop now
+	 */
+	public boolean isInterrupted() {
+		return cancelled || (budget != UNLIMITED && System.nanoTime() - deadline >= 0)
+				|| (parent != null && parent.isInterrupted());
+	}
+
+	/**
+	 * Next method : counts an iteration of the search (called by the search thread)
+	 * @return true if the search can go on, false if a criterion is met
+	 */
+	public boolean next() {
+		iterations++;
+		return !isInterrupted()
+				&& (maxEvaluations == UNLIMITED || evaluations.sum() < maxEvaluations)
+				&& (stagnationLimit == UNLIMITED || iterations - lastImprovement <= stagnationLimit);
+	}
+
+	/**
+	 * Count evaluated moves (thread-safe)
+	 * @param count
+	 */
+	public void evaluate(long count) {
+		evaluations.add(count);
+	}
+
+	/**
+	 * New best method : resets the stagnation and notifies the listeners
+	 * @param solution (new best solution, must not be modified by the listeners)
+	 */
+	public synchronized void newBest(Solution solution) {
+		lastImprovement = iterations;
+		for(SearchListener listener : listeners)
+			listener.onNewBest(solution, getElapsedTime(), getEvaluations());
+	}
+
+	/**
+	 * Add a listener notified on each new best solution
+	 * @param listener
+	 */
+	public void addListener(SearchListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Get the number of moves evaluated since the start
+	 * @return evaluations
+	 */
+	public long getEvaluations() {
+		return evaluations.sum();
+	}
+
+	/**
+	 * Get the number of iterations since the start
+	 * @return iterations
+	 */
+	public long getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Get the time elapsed since the start
+	 * @return elapsedTime (milliseconds)
+	 */
+	public long getElapsedTime() {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+}
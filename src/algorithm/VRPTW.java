@@ -1,21 +1,34 @@
 package algorithm;
 
+import algorithm.construction.InitialSolutionBuilder;
+import algorithm.construction.RandomBuilder;
 import algorithm.operator.*;
 import data.Data;
 import model.*;
 import view.GraphView;
 
 import java.util.*;
-import java.util.stream.IntStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.random.RandomGenerator;
 
 /**
  * VRPTW class : implements the VRPTW algorithm
+ * <p>
+ * Every random draw of a search comes from a generator seeded by the run seed : the parallel scans
+ * get their own generators split from it, so a run can be reproduced from its seed.
  * @author Julian DEGUT
  */
 public abstract class VRPTW {
-	protected static final Random random = new Random();
+	private static final int CHUNK_SIZE = 32;
+	private static final double MIN_IMPROVEMENT = 1e-9;
+	private final long seed;
+	protected final SplittableRandom random;
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+	private boolean granular = false;
 	protected GraphView graphView;
 	protected List<Double> costs;
+	protected Termination termination = new Termination();
 	private static final List<Operator> operators = List.of(
 			new CrossExchange(),
 			new Exchange(OperatorType.INTER),
@@ -23,9 +36,29 @@ public abstract class VRPTW {
 			new Relocate(OperatorType.INTER),
 			new Relocate(OperatorType.INTRA),
 			new Reverse(),
-			new TwoOpt()
+			new TwoOpt(),
+			new TwoOptStar(),
+			new OrOpt(OperatorType.INTER),
+			new OrOpt(OperatorType.INTRA)
 	);
 
+	/**
+	 * Constructor
+	 * @param seed (run seed)
+	 */
+	protected VRPTW(long seed) {
+		this.seed = seed;
+		this.random = new SplittableRandom(seed);
+	}
+
+	/**
+	 * Get the run seed
+	 * @return seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
 	/**
 	 * Search method : starts the VRPTW algorithm chosen
 	 * @param solution (initial random solution)
@@ -41,13 +74,96 @@ public abstract class VRPTW {
 	 */
 	protected abstract Solution search(Solution solution);
 
+	/**
+	 * Search method : starts the VRPTW algorithm chosen with stopping criteria & progress callbacks
+	 * @param solution (initial random solution)
+	 * @param termination (started by the search, can be cancelled from another thread)
+	 * @return best solution found
+	 */
+	public Solution search(Solution solution, Termination termination) {
+		return search(solution, termination, false);
+	}
+
+	/**
+	 * Search method : starts the VRPTW algorithm chosen with stopping criteria & progress callbacks
+	 * @param solution (initial random solution)
+	 * @param termination (started by the search, can be cancelled from another thread)
+	 * @param dynamic (true if the graph is displayed & refreshed)
+	 * @return best solution found
+	 */
+	public Solution search(Solution solution, Termination termination, boolean dynamic) {
+		this.termination = termination;
+		termination.start();
+		return search(solution, dynamic);
+	}
+
+	/**
+	 * Search method : starts the VRPTW algorithm from the best known solution of the store if it is better than
+	 * the given one, then records the result in the store (with the name of the algorithm & its run seed)
+	 * @param solution (initial solution)
+	 * @param termination (started by the search, can be cancelled from another thread)
+	 * @param store
+	 * @return best solution found
+	 */
+	public Solution search(Solution solution, Termination termination, SolutionStore store) {
+		Solution stored = store.load(solution.getData());
+		if(stored != null && stored.getTotalDistance() < solution.getTotalDistance())
+			solution = stored;
+		Solution best = search(solution, termination);
+		store.save(best, getClass().getSimpleName(), seed);
+		return best;
+	}
+
+	/**
+	 * Get the termination of the current search
+	 * @return termination
+	 */
+	public Termination getTermination() {
+		return termination;
+	}
+
 	/**
 	 * Init method : initializes the solution (random)
 	 * @param data
 	 * @return
 	 */
 	public static Solution init(Data data) {
-		return getRandomSolution(data);
+		return getRandomSolution(data, new SplittableRandom());
+	}
+
+	/**
+	 * Init method : initializes the solution (random)
+	 * @param data
+	 * @param seed
+	 * @return
+	 */
+	public static Solution init(Data data, long seed) {
+		return getRandomSolution(data, new SplittableRandom(seed));
+	}
+
+	/**
+	 * Init method : initializes the solution with a construction heuristic
+	 * @param data
+	 * @param builder
+	 * @param seed
+	 * @return
+	 */
+	public static Solution init(Data data, InitialSolutionBuilder builder, long seed) {
+		return builder.build(data, new SplittableRandom(seed));
+	}
+
+	/**
+	 * Init method : initializes the solution with the best known solution of the store
+	 * (or with a construction heuristic if the instance has none)
+	 * @param data
+	 * @param builder
+	 * @param store
+	 * @param seed
+	 * @return
+	 */
+	public static Solution init(Data data, InitialSolutionBuilder builder, SolutionStore store, long seed) {
+		Solution stored = store.load(data);
+		return stored != null ? stored : init(data, builder, seed);
 	}
 
 	/**
@@ -66,63 +182,141 @@ public abstract class VRPTW {
 	/**
 	 * Get a random solution
 	 * @param data
+	 * @param random
 	 * @return solution
 	 */
-	public static Solution getRandomSolution(Data data) {
-		LinkedList<Vehicle> vehicles = new LinkedList<>(); // LinkedList : better for insertion & deletion
-		LinkedList<Client> clients = new LinkedList<>(data.getClients());
-		Depot depot = data.getDepot();
-		while(!clients.isEmpty()) {
-			Vehicle v = new Vehicle(depot, data.getMaxQuantity());
-			ArrayList<Client> marked = new ArrayList<>();
-
-			while(marked.size() < clients.size()) {
-				Client destination = clients.stream()
-						.filter(c -> !marked.contains(c))
-						.skip(random.nextInt(clients.size()))
-						.findFirst()
-						.orElse(null);
-				if(destination == null) break;
-				if(!v.addClient(destination)) marked.add(destination);
-				else clients.remove(destination);
-			}
-			vehicles.add(v);
-		}
-		return new Solution(data, vehicles);
+	public static Solution getRandomSolution(Data data, RandomGenerator random) {
+		return new RandomBuilder().build(data, random);
 	}
 
 	/**
-	 * Get the neighborhood of a solution (using parallel streams)
+	 * Get the neighborhood of a solution (using a fork-join pool)
 	 * @param solution
-	 * @return neighborhood
-	 */
-	public static ArrayList<Neighbor> getNeighborhood(Solution solution, int MAX_NEIGHBORS) {
-		ArrayList<Neighbor> neighborhood = new ArrayList<>();
-		operators.parallelStream().forEach(operator -> IntStream.range(0, MAX_NEIGHBORS).parallel().forEach(i -> {
-			Neighbor neighbor = operator.scan(solution);
-			if (neighbor != null) {
-				synchronized (neighborhood) {
-					neighborhood.add(neighbor);
-				}
-			}
-		}));
-		Collections.shuffle(neighborhood);
+	 * @return neighborhood (shuffled)
+	 */
+	public ArrayList<Neighbor> getNeighborhood(Solution solution, int MAX_NEIGHBORS) {
+		ArrayList<Neighbor> neighborhood = new ArrayList<>(reduceNeighborhood(solution, MAX_NEIGHBORS, 0, null).getNeighbors());
+		shuffle(neighborhood);
 		return neighborhood;
 	}
 
+	/**
+	 * Get the best admissible neighbor of a solution without keeping the neighborhood
+	 * @param solution
+	 * @param MAX_NEIGHBORS
+	 * @param admissible (null if all the neighbors are admissible)
+	 * @return neighbor (the best inadmissible one if none is admissible), null if no neighbor was found
+	 */
+	public Neighbor getBestNeighbor(Solution solution, int MAX_NEIGHBORS, Predicate<Neighbor> admissible) {
+		return reduceNeighborhood(solution, MAX_NEIGHBORS, 1, admissible).getBest();
+	}
+
+	/**
+	 * Scan the neighborhood of a solution (using a fork-join pool) and reduce it
+	 * The scans are cut in chunks, each chunk has its own generator split from the run generator
+	 * and its own reducer, so the result only depends on the run seed.
+	 * @param solution
+	 * @param MAX_NEIGHBORS (scans per operator)
+	 * @param k (neighbors kept, all of them if k <= 0)
+	 * @param admissible (null if all the neighbors are admissible)
+	 * @return reducer
+	 */
+	public NeighborReducer reduceNeighborhood(Solution solution, int MAX_NEIGHBORS, int k, Predicate<Neighbor> admissible) {
+		int chunks = (MAX_NEIGHBORS + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		SplittableRandom[] randoms = new SplittableRandom[operators.size() * chunks];
+		for(int i = 0; i < randoms.length; i++)
+			randoms[i] = random.split();
+		if(randoms.length == 0)
+			return new NeighborReducer(k, admissible);
+		return pool.invoke(new NeighborhoodTask(operators, solution, randoms, MAX_NEIGHBORS, CHUNK_SIZE, granular, k, admissible, termination, 0, randoms.length));
+	}
+
+	/**
+	 * Set the pool used to generate the neighborhoods (common pool by default)
+	 * @param pool
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Get the best improving move of a solution by enumerating all the moves of the operators
+	 * (in parallel over the pairs of vehicles, using a fork-join pool)
+	 * @param solution
+	 * @return neighbor, null if the solution is a local optimum
+	 */
+	public Neighbor getBestImprovement(Solution solution) {
+		int nbVehicles = solution.getNbVehicles();
+		if(nbVehicles == 0)
+			return null;
+		return pool.invoke(new EnumerationTask(operators, solution, -MIN_IMPROVEMENT, termination, 0, nbVehicles * nbVehicles)).getBest();
+	}
+
+	/**
+	 * Local search method : apply the best improving move until the solution is a local optimum of all the operators
+	 * (or until the search is interrupted)
+	 * @param solution (modified)
+	 * @return number of moves applied
+	 */
+	public int localSearch(Solution solution) {
+		int moves = 0;
+		Neighbor neighbor;
+		while(!termination.isInterrupted() && (neighbor = getBestImprovement(solution)) != null) {
+			neighbor.getOperator().execute(solution, neighbor);
+			moves++;
+		}
+		return moves;
+	}
+
+	/**
+	 * Set the granular scan mode : the operators only draw moves creating an arc of the candidate lists of the data
+	 * @param granular
+	 */
+	public void setGranular(boolean granular) {
+		this.granular = granular;
+	}
+
+	/**
+	 * Get the pool used to generate the neighborhoods
+	 * @return pool
+	 */
+	protected ForkJoinPool getPool() {
+		return pool;
+	}
+
 	/**
 	 * Get a single random neighbor
 	 * @param solution
-	 * @return
+	 * @return neighbor, null if the search is interrupted before a feasible move is drawn
 	 */
-	public static Neighbor getRandomNeighbor(Solution solution) {
+	public Neighbor getRandomNeighbor(Solution solution) {
+		return getRandomNeighbor(solution, random);
+	}
+
+	/**
+	 * Get a single random neighbor drawn with the given generator
+	 * @param solution
+	 * @param random (generator of the calling thread)
+	 * @return neighbor, null if the search is interrupted before a feasible move is drawn
+	 */
+	public Neighbor getRandomNeighbor(Solution solution, RandomGenerator random) {
 		Neighbor neighbor = null;
-		while(neighbor == null) {
-			neighbor = operators.get(new Random().nextInt(operators.size())).scan(solution);
+		while(neighbor == null && !termination.isInterrupted()) {
+			neighbor = operators.get(random.nextInt(operators.size())).scan(solution, random, granular);
+			termination.evaluate(1);
 		}
 		return neighbor;
 	}
 
+	/**
+	 * Shuffle a list with the run generator (Fisher-Yates)
+	 * @param list
+	 */
+	protected <T> void shuffle(List<T> list) {
+		for(int i = list.size() - 1; i > 0; i--)
+			Collections.swap(list, i, random.nextInt(i + 1));
+	}
+
 	/**
 	 * Get the fitness of a neighbor
 	 * @param neighbor
@@ -0,0 +1,98 @@
+package algorithm.alns;
+
+import model.Solution;
+import model.Vehicle;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.random.RandomGenerator;
+
+/**
+ * Destroy class : implements the Destroy operators of the ALNS
+ * <p>
+ * A destroy operator removes clients from the routes of a solution (the routes stay feasible,
+ * the vehicles emptied are removed) and returns them to be inserted again by a repair operator.
+ * @author Julian DEGUT
+ */
+public abstract class Destroy {
+
+	/**
+	 * Determinism of the randomized selections (the higher, the closer to the ranking)
+	 */
+	protected static final double DETERMINISM = 4;
+
+	/**
+	 * Destroy method : remove clients from the solution
+	 * @param solution (modified)
+	 * @param random
+	 * @param count (number of clients to remove)
+	 * @return clients removed (dense indexes)
+	 */
+	public abstract int[] destroy(Solution solution, RandomGenerator random, int count);
+
+	/**
+	 * Remove a client from its vehicle (the vehicle is removed if it is emptied)
+	 * @param solution
+	 * @param client (dense index)
+	 */
+	protected static void remove(Solution solution, int client) {
+		Vehicle vehicle = solution.getVehicle(client);
+		vehicle.remove(solution.getPosition(client));
+		if(vehicle.size() == 0)
+			solution.removeVehicle(vehicle);
+	}
+
+	/**
+	 * Get the clients served by the vehicles of the solution
+	 * @param solution
+	 * @return clients (dense indexes)
+	 */
+	protected static int[] getClients(Solution solution) {
+		int size = 0;
+		for(Vehicle vehicle : solution.getVehicles())
+			size += vehicle.size();
+		int[] clients = new int[size];
+		int i = 0;
+		for(Vehicle vehicle : solution.getVehicles()) {
+			for(int position = 1; position <= vehicle.size(); position++)
+				clients[i++] = vehicle.getVertex(position);
+		}
+		return clients;
+	}
+
+	/**
+	 * Sort clients by increasing key
+	 * @param clients
+	 * @param keys (key of each client, same order)
+	 * @return clients sorted
+	 */
+	protected static int[] sort(int[] clients, double[] keys) {
+		Integer[] order = new Integer[clients.length];
+		for(int i = 0; i < order.length; i++)
+			order[i] = i;
+		Arrays.sort(order, Comparator.comparingDouble(i -> keys[i]));
+		int[] sorted = new int[clients.length];
+		for(int i = 0; i < sorted.length; i++)
+			sorted[i] = clients[order[i]];
+		return sorted;
+	}
+
+	/**
+	 * Draw a rank favoring the first ones (random^DETERMINISM * size)
+	 * @param random
+	 * @param size
+	 * @return rank (0..size-1)
+	 */
+	protected static int select(RandomGenerator random, int size) {
+		return (int) (Math.pow(random.nextDouble(), DETERMINISM) * size);
+	}
+
+	/**
+	 * ToString method
+	 * @return
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+}
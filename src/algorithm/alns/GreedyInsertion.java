@@ -0,0 +1,30 @@
+package algorithm.alns;
+
+/**
+ * GreedyInsertion class : implements the greedy insertion (cheapest insertion first)
+ * @author Julian DEGUT
+ */
+public class GreedyInsertion extends Repair {
+
+	/**
+	 * Choose the client having the cheapest insertion
+	 * @param costs
+	 * @param nbClients
+	 * @param nbVehicles
+	 * @return row of the client
+	 */
+	@Override
+	protected int choose(double[][] costs, int nbClients, int nbVehicles) {
+		int chosen = 0;
+		double best = INFEASIBLE;
+		for(int i = 0; i < nbClients; i++) {
+			for(int v = 0; v < nbVehicles; v++) {
+				if(costs[i][v] < best) {
+					best = costs[i][v];
+					chosen = i;
+				}
+			}
+		}
+		return chosen;
+	}
+}
@@ -0,0 +1,35 @@
+package algorithm.alns;
+
+import model.Solution;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * RandomRemoval class : implements the random removal (clients drawn uniformly)
+ * @author Julian DEGUT
+ */
+public class RandomRemoval extends Destroy {
+
+	/**
+	 * Destroy method : remove random clients (partial Fisher-Yates shuffle)
+	 * @param solution
+	 * @param random
+	 * @param count
+	 * @return clients removed
+	 */
+	@Override
+	public int[] destroy(Solution solution, RandomGenerator random, int count) {
+		int[] clients = getClients(solution);
+		count = Math.min(count, clients.length);
+		int[] removed = new int[count];
+		for(int i = 0; i < count; i++) {
+			int j = i + random.nextInt(clients.length - i);
+			int client = clients[j];
+			clients[j] = clients[i];
+			clients[i] = client;
+			remove(solution, client);
+			removed[i] = client;
+		}
+		return removed;
+	}
+}
@@ -0,0 +1,77 @@
+package algorithm.alns;
+
+/**
+ * RegretInsertion class : implements the regret-k insertion
+ * <p>
+ * The client inserted first is the one which would lose the most by not being inserted in its best vehicle :
+ * its regret is the sum of the gaps between its best insertion and its k-1 next best insertions (in other vehicles).
+ * The clients having less than k feasible vehicles come first (the fewer, the sooner).
+ * @author Julian DEGUT
+ */
+public class RegretInsertion extends Repair {
+
+	private final int k;
+
+	/**
+	 * Constructor
+	 * @param k (at least 2)
+	 */
+	public RegretInsertion(int k) {
+		if(k < 2)
+			throw new IllegalArgumentException("Regret insertion needs k >= 2");
+		this.k = k;
+	}
+
+	/**
+	 * Choose the client having the highest regret
+	 * @param costs
+	 * @param nbClients
+	 * @param nbVehicles
+	 * @return row of the client
+	 */
+	@Override
+	protected int choose(double[][] costs, int nbClients, int nbVehicles) {
+		double[] best = new double[k];
+		int chosen = 0;
+		int chosenOptions = k + 1;
+		double chosenRegret = -1;
+		double chosenCost = INFEASIBLE;
+		for(int i = 0; i < nbClients; i++) {
+			int options = 0; // k cheapest insertions, sorted
+			for(int v = 0; v < nbVehicles; v++) {
+				double cost = costs[i][v];
+				if(cost == INFEASIBLE || (options == k && cost >= best[k - 1]))
+					continue;
+				int j = options < k ? options++ : k - 1;
+				while(j > 0 && cost < best[j - 1]) {
+					best[j] = best[j - 1];
+					j--;
+				}
+				best[j] = cost;
+			}
+			double regret = 0;
+			for(int j = 1; j < options; j++)
+				regret += best[j] - best[0];
+			double cost = options == 0 ? INFEASIBLE : best[0];
+			boolean better = options < chosenOptions;
+			if(options == chosenOptions)
+				better = options < k ? cost < chosenCost : regret > chosenRegret || (regret == chosenRegret && cost < chosenCost);
+			if(better) {
+				chosen = i;
+				chosenOptions = options;
+				chosenRegret = regret;
+				chosenCost = cost;
+			}
+		}
+		return chosen;
+	}
+
+	/**
+	 * ToString method
+	 * @return
+	 */
+	@Override
+	public String toString() {
+		return "RegretInsertion-" + k;
+	}
+}
@@ -0,0 +1,108 @@
+package algorithm.alns;
+
+import data.Data;
+import model.Solution;
+import model.Vehicle;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Repair class : implements the Repair operators of the ALNS
+ * <p>
+ * A repair operator inserts the clients removed by a destroy operator at their cheapest feasible positions,
+ * in an order chosen by the operator. The cheapest insertion of each pending client in each vehicle is kept
+ * in a table (constant time feasibility checks), only the column of the vehicle modified by an insertion is
+ * evaluated again. A client which cannot be inserted anywhere gets a new vehicle.
+ * @author Julian DEGUT
+ */
+public abstract class Repair {
+
+	/**
+	 * Value of the table when a client cannot be inserted in a vehicle
+	 */
+	protected static final double INFEASIBLE = Vehicle.INFEASIBLE;
+
+	/**
+	 * Choose the next client to insert
+	 * @param costs (cheapest insertion cost of each pending client in each vehicle, INFEASIBLE if none)
+	 * @param nbClients (number of pending clients, rows of the table)
+	 * @param nbVehicles (number of vehicles, columns of the table)
+	 * @return row of the client
+	 */
+	protected abstract int choose(double[][] costs, int nbClients, int nbVehicles);
+
+	/**
+	 * Repair method : insert the clients in the solution
+	 * @param solution (modified)
+	 * @param random
+	 * @param clients (dense indexes)
+	 */
+	public void repair(Solution solution, RandomGenerator random, int[] clients) {
+		Data data = solution.getData();
+		int nbClients = clients.length;
+		int nbVehicles = solution.getNbVehicles();
+		int[] pending = clients.clone();
+		double[][] costs = new double[nbClients][nbVehicles + nbClients];
+		int[][] positions = new int[nbClients][nbVehicles + nbClients];
+		for(int v = 0; v < nbVehicles; v++)
+			evaluate(solution, v, pending, nbClients, costs, positions);
+		while(nbClients > 0) {
+			int i = choose(costs, nbClients, nbVehicles);
+			int best = -1;
+			for(int v = 0; v < nbVehicles; v++) {
+				if(costs[i][v] != INFEASIBLE && (best < 0 || costs[i][v] < costs[i][best]))
+					best = v;
+			}
+			int client = pending[i];
+			if(best < 0) {
+				solution.addVehicle(new Vehicle(data, new int[] {client}));
+				best = nbVehicles++;
+			} else
+				solution.getVehicles().get(best).insert(positions[i][best], client);
+			nbClients--; // the last pending client takes the row of the client inserted
+			pending[i] = pending[nbClients];
+			double[] row = costs[i];
+			costs[i] = costs[nbClients];
+			costs[nbClients] = row;
+			int[] rowPositions = positions[i];
+			positions[i] = positions[nbClients];
+			positions[nbClients] = rowPositions;
+			evaluate(solution, best, pending, nbClients, costs, positions);
+		}
+	}
+
+	/**
+	 * Evaluate the cheapest insertion of the pending clients in a vehicle
+	 * @param solution
+	 * @param v (index of the vehicle)
+	 * @param pending
+	 * @param nbClients
+	 * @param costs
+	 * @param positions
+	 */
+	private static void evaluate(Solution solution, int v, int[] pending, int nbClients, double[][] costs, int[][] positions) {
+		Vehicle vehicle = solution.getVehicles().get(v);
+		for(int i = 0; i < nbClients; i++) {
+			double best = INFEASIBLE;
+			int bestPosition = 0;
+			for(int position = 1; position <= vehicle.size() + 1; position++) {
+				double cost = vehicle.getInsertionCost(pending[i], position);
+				if(cost < best) {
+					best = cost;
+					bestPosition = position;
+				}
+			}
+			costs[i][v] = best;
+			positions[i][v] = bestPosition;
+		}
+	}
+
+	/**
+	 * ToString method
+	 * @return
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+}
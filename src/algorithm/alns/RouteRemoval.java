@@ -0,0 +1,34 @@
+package algorithm.alns;
+
+import model.Solution;
+import model.Vehicle;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * RouteRemoval class : implements the route removal (all the clients of random vehicles)
+ * @author Julian DEGUT
+ */
+public class RouteRemoval extends Destroy {
+
+	/**
+	 * Destroy method : empty random vehicles until count clients are removed (the last vehicle can exceed count)
+	 * @param solution
+	 * @param random
+	 * @param count
+	 * @return clients removed
+	 */
+	@Override
+	public int[] destroy(Solution solution, RandomGenerator random, int count) {
+		int[] removed = new int[0];
+		while(removed.length < count && solution.getNbVehicles() > 0) {
+			Vehicle vehicle = solution.getVehicles().get(random.nextInt(solution.getNbVehicles()));
+			int[] clients = vehicle.toArray();
+			solution.removeVehicle(vehicle);
+			removed = Arrays.copyOf(removed, removed.length + clients.length);
+			System.arraycopy(clients, 0, removed, removed.length - clients.length, clients.length);
+		}
+		return removed;
+	}
+}
@@ -0,0 +1,60 @@
+package algorithm.alns;
+
+import data.Data;
+import model.Solution;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * ShawRemoval class : implements the Shaw removal (clients related to the clients already removed)
+ * <p>
+ * The relatedness of two clients is the weighted sum of their distance, the gap between their ready times
+ * and the gap between their demands (each one normalized), the lower the more related.
+ * @author Julian DEGUT
+ */
+public class ShawRemoval extends Destroy {
+
+	private static final double DISTANCE_WEIGHT = 9;
+	private static final double TIME_WEIGHT = 3;
+	private static final double DEMAND_WEIGHT = 2;
+
+	/**
+	 * Destroy method : remove a random client, then the clients most related to a removed client (randomized ranking)
+	 * @param solution
+	 * @param random
+	 * @param count
+	 * @return clients removed
+	 */
+	@Override
+	public int[] destroy(Solution solution, RandomGenerator random, int count) {
+		Data data = solution.getData();
+		int[] clients = getClients(solution);
+		count = Math.min(count, clients.length);
+		int[] removed = new int[count];
+		if(count == 0)
+			return removed;
+		double maxDistance = 0;
+		int maxDemand = 1;
+		for(int client : clients) {
+			maxDistance = Math.max(maxDistance, data.getDistance(0, client));
+			maxDemand = Math.max(maxDemand, data.getDemand(client));
+		}
+		double maxTime = Math.max(1, data.getDueTime(0));
+		removed[0] = clients[random.nextInt(clients.length)];
+		remove(solution, removed[0]);
+		for(int i = 1; i < count; i++) {
+			int reference = removed[random.nextInt(i)];
+			clients = getClients(solution);
+			double[] relatedness = new double[clients.length];
+			for(int j = 0; j < clients.length; j++) {
+				int client = clients[j];
+				relatedness[j] = DISTANCE_WEIGHT * data.getDistance(reference, client) / (2 * maxDistance)
+						+ TIME_WEIGHT * Math.abs(data.getReadyTime(reference) - data.getReadyTime(client)) / maxTime
+						+ DEMAND_WEIGHT * Math.abs(data.getDemand(reference) - data.getDemand(client)) / maxDemand;
+			}
+			removed[i] = sort(clients, relatedness)[select(random, clients.length)];
+			remove(solution, removed[i]);
+		}
+		return removed;
+	}
+}
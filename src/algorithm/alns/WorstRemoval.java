@@ -0,0 +1,43 @@
+package algorithm.alns;
+
+import data.Data;
+import model.Solution;
+import model.Vehicle;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * WorstRemoval class : implements the worst removal (clients whose removal saves the most distance first)
+ * @author Julian DEGUT
+ */
+public class WorstRemoval extends Destroy {
+
+	/**
+	 * Destroy method : remove the clients with the highest removal gains (randomized ranking)
+	 * @param solution
+	 * @param random
+	 * @param count
+	 * @return clients removed
+	 */
+	@Override
+	public int[] destroy(Solution solution, RandomGenerator random, int count) {
+		Data data = solution.getData();
+		count = Math.min(count, data.getNbVertices() - 1);
+		int[] removed = new int[count];
+		for(int i = 0; i < count; i++) {
+			int[] clients = getClients(solution);
+			double[] gains = new double[clients.length];
+			for(int j = 0; j < clients.length; j++) {
+				Vehicle vehicle = solution.getVehicle(clients[j]);
+				int position = solution.getPosition(clients[j]);
+				int before = vehicle.getVertex(position - 1);
+				int after = vehicle.getVertex(position + 1);
+				gains[j] = data.getDistance(before, after) - data.getDistance(before, clients[j]) - data.getDistance(clients[j], after);
+			}
+			int client = sort(clients, gains)[select(random, clients.length)];
+			remove(solution, client);
+			removed[i] = client;
+		}
+		return removed;
+	}
+}
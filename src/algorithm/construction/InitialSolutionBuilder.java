@@ -0,0 +1,21 @@
+package algorithm.construction;
+
+import data.Data;
+import model.Solution;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * InitialSolutionBuilder interface : builds the initial solution of a search
+ * @author Julian DEGUT
+ */
+public interface InitialSolutionBuilder {
+
+	/**
+	 * Build method : build a feasible solution serving all the clients
+	 * @param data
+	 * @param random (used by the randomized builders only)
+	 * @return solution
+	 */
+	Solution build(Data data, RandomGenerator random);
+}
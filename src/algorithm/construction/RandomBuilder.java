@@ -0,0 +1,53 @@
+package algorithm.construction;
+
+import data.Data;
+import model.Solution;
+import model.Vehicle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * RandomBuilder class : builds a random solution
+ * <p>
+ * Each vehicle walks the remaining clients in a random order and appends the ones it can still serve,
+ * the others are left to the next vehicles (O(n) per vehicle).
+ * @author Julian DEGUT
+ */
+public class RandomBuilder implements InitialSolutionBuilder {
+
+	/**
+	 * Build method : build a random solution
+	 * @param data
+	 * @param random
+	 * @return solution
+	 */
+	@Override
+	public Solution build(Data data, RandomGenerator random) {
+		int nbClients = data.getNbVertices() - 1;
+		int[] clients = new int[nbClients];
+		for(int i = 0; i < nbClients; i++)
+			clients[i] = i + 1;
+		List<Vehicle> vehicles = new ArrayList<>();
+		while(nbClients > 0) {
+			for(int i = nbClients - 1; i > 0; i--) { // Fisher-Yates
+				int j = random.nextInt(i + 1);
+				int client = clients[i];
+				clients[i] = clients[j];
+				clients[j] = client;
+			}
+			Vehicle vehicle = new Vehicle(data);
+			int left = 0;
+			for(int i = 0; i < nbClients; i++) {
+				if(vehicle.size() > 0 && vehicle.getInsertionCost(clients[i], vehicle.size() + 1) == Vehicle.INFEASIBLE)
+					clients[left++] = clients[i];
+				else
+					vehicle.insert(vehicle.size() + 1, clients[i]);
+			}
+			nbClients = left;
+			vehicles.add(vehicle);
+		}
+		return new Solution(data, vehicles);
+	}
+}
@@ -0,0 +1,114 @@
+package algorithm.construction;
+
+import data.Data;
+import model.Solution;
+import model.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * SavingsBuilder class : builds a solution with the Clarke &amp; Wright savings heuristic (time windows version)
+ * <p>
+ * Each client starts in its own route, then the routes ending with i and starting with j are merged by decreasing
+ * savings d(depot, i) + d(depot, j) - d(i, j) while the merged route is feasible (capacity and time windows checked
+ * in O(1) with the forward &amp; backward data of the vehicles). The arcs of the candidate lists of the data are merged
+ * first (O(n * k * log(n * k)) for k candidates per client), then all the pairs of ends of the remaining routes
+ * (O(r^2 * log(r)) for r routes).
+ * @author Julian DEGUT
+ */
+public class SavingsBuilder implements InitialSolutionBuilder {
+
+	/**
+	 * Build method : build a solution with the savings heuristic
+	 * @param data
+	 * @param random (not used)
+	 * @return solution
+	 */
+	@Override
+	public Solution build(Data data, RandomGenerator random) {
+		int nbVertices = data.getNbVertices();
+		Vehicle[] owner = new Vehicle[nbVertices];
+		for(int client = 1; client < nbVertices; client++)
+			owner[client] = new Vehicle(data, new int[] {client});
+
+		int nbArcs = 0;
+		for(int client = 1; client < nbVertices; client++)
+			nbArcs += data.getNbCandidates(client);
+		int[] from = new int[2 * nbArcs];
+		int[] to = new int[2 * nbArcs];
+		int count = 0;
+		for(int i = 1; i < nbVertices; i++) {
+			for(int rank = 0; rank < data.getNbCandidates(i); rank++) {
+				int j = data.getCandidate(i, rank);
+				from[count] = i; to[count++] = j;
+				from[count] = j; to[count++] = i;
+			}
+		}
+		merge(data, owner, from, to, count);
+
+		List<Vehicle> vehicles = getVehicles(owner);
+		int nbRoutes = vehicles.size();
+		from = new int[nbRoutes * (nbRoutes - 1)];
+		to = new int[nbRoutes * (nbRoutes - 1)];
+		count = 0;
+		for(Vehicle first : vehicles) {
+			for(Vehicle second : vehicles) {
+				if(first != second) {
+					from[count] = first.getVertex(first.size()); to[count++] = second.getVertex(1);
+				}
+			}
+		}
+		merge(data, owner, from, to, count);
+		return new Solution(data, getVehicles(owner));
+	}
+
+	/**
+	 * Merge the routes by decreasing savings
+	 * @param data
+	 * @param owner (vehicle of each client, updated)
+	 * @param from (last client of the first route)
+	 * @param to (first client of the second route)
+	 * @param count (number of arcs)
+	 */
+	private static void merge(Data data, Vehicle[] owner, int[] from, int[] to, int count) {
+		double[] savings = new double[count];
+		List<Integer> order = new ArrayList<>(count);
+		for(int arc = 0; arc < count; arc++) {
+			savings[arc] = data.getDistance(0, from[arc]) + data.getDistance(to[arc], 0) - data.getDistance(from[arc], to[arc]);
+			if(savings[arc] > 0)
+				order.add(arc);
+		}
+		order.sort(Comparator.comparingDouble(arc -> -savings[arc]));
+
+		for(int arc : order) {
+			Vehicle first = owner[from[arc]];
+			Vehicle second = owner[to[arc]];
+			if(first == second || first.getVertex(first.size()) != from[arc] || second.getVertex(1) != to[arc])
+				continue;
+			if(first.getLoad() + second.getLoad() > first.getMaxCapacity()
+					|| !second.canReach(from[arc], first.getDeparture(first.size()), 1))
+				continue;
+			int[] clients = second.toArray();
+			first.replace(first.size() + 1, first.size(), clients, 0, clients.length);
+			for(int client : clients)
+				owner[client] = first;
+		}
+	}
+
+	/**
+	 * Get the routes (each one once, in the order of their first client)
+	 * @param owner (vehicle of each client)
+	 * @return vehicles
+	 */
+	private static List<Vehicle> getVehicles(Vehicle[] owner) {
+		List<Vehicle> vehicles = new ArrayList<>();
+		for(int client = 1; client < owner.length; client++) {
+			if(owner[client].getVertex(1) == client)
+				vehicles.add(owner[client]);
+		}
+		return vehicles;
+	}
+}
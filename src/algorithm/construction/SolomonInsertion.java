@@ -0,0 +1,122 @@
+package algorithm.construction;
+
+import data.Data;
+import model.Solution;
+import model.Vehicle;
+
+import java.util.ArrayList;
+import java.util.random.RandomGenerator;
+
+/**
+ * SolomonInsertion class : builds a solution with the Solomon I1 insertion heuristic
+ * <p>
+ * Each route is started with the unrouted client farthest from the depot, then the client inserted is the one
+ * maximizing LAMBDA * d(depot, u) - c1(u), c1(u) being its cheapest feasible insertion cost in the route
+ * (alpha1 = 1, alpha2 = 0, mu = 1). The cheapest insertion of each client is kept : an insertion only delays the
+ * next clients, so a kept insertion stays the cheapest one while it is feasible, and only the two arcs created
+ * have to be evaluated. It is searched again (O(route)) only when its arc is removed or when it becomes infeasible.
+ * @author Julian DEGUT
+ */
+public class SolomonInsertion implements InitialSolutionBuilder {
+
+	private static final double LAMBDA = 2;
+
+	/**
+	 * Build method : build a solution with the I1 insertion heuristic
+	 * @param data
+	 * @param random (not used)
+	 * @return solution
+	 */
+	@Override
+	public Solution build(Data data, RandomGenerator random) {
+		Solution solution = new Solution(data, new ArrayList<>());
+		int nbVertices = data.getNbVertices();
+		int nbUnrouted = nbVertices - 1;
+		int[] unrouted = new int[nbUnrouted];
+		for(int i = 0; i < nbUnrouted; i++)
+			unrouted[i] = i + 1;
+		double[] costs = new double[nbVertices];
+		int[] previous = new int[nbVertices]; // the client is inserted just after previous
+		while(nbUnrouted > 0) {
+			int seed = 0;
+			for(int i = 1; i < nbUnrouted; i++) {
+				if(data.getDistance(0, unrouted[i]) > data.getDistance(0, unrouted[seed]))
+					seed = i;
+			}
+			Vehicle vehicle = new Vehicle(data, new int[] {unrouted[seed]});
+			solution.addVehicle(vehicle);
+			unrouted[seed] = unrouted[--nbUnrouted];
+			for(int i = 0; i < nbUnrouted; i++)
+				search(solution, vehicle, unrouted[i], costs, previous);
+			while(true) {
+				int best = -1;
+				for(int i = 0; i < nbUnrouted; i++) {
+					int client = unrouted[i];
+					if(costs[client] != Vehicle.INFEASIBLE && (best < 0
+							|| LAMBDA * data.getDistance(0, client) - costs[client] > LAMBDA * data.getDistance(0, unrouted[best]) - costs[unrouted[best]]))
+						best = i;
+				}
+				if(best < 0)
+					break;
+				int client = unrouted[best];
+				int before = previous[client];
+				vehicle.insert(position(solution, before) + 1, client);
+				unrouted[best] = unrouted[--nbUnrouted];
+				for(int i = 0; i < nbUnrouted; i++) {
+					int other = unrouted[i];
+					if(costs[other] == Vehicle.INFEASIBLE)
+						continue; // the route only gets later and heavier
+					int position = position(solution, previous[other]) + 1;
+					if(previous[other] == before || vehicle.getInsertionCost(other, position) == Vehicle.INFEASIBLE) {
+						search(solution, vehicle, other, costs, previous);
+						continue;
+					}
+					evaluate(vehicle, other, before, position(solution, client), costs, previous);
+					evaluate(vehicle, other, client, position(solution, client) + 1, costs, previous);
+				}
+			}
+		}
+		return solution;
+	}
+
+	/**
+	 * Get the position of a vertex in its vehicle
+	 * @param solution
+	 * @param vertex (0 for the start depot)
+	 * @return position
+	 */
+	private static int position(Solution solution, int vertex) {
+		return vertex == 0 ? 0 : solution.getPosition(vertex);
+	}
+
+	/**
+	 * Search the cheapest feasible insertion of a client in a vehicle
+	 * @param solution
+	 * @param vehicle
+	 * @param client
+	 * @param costs
+	 * @param previous
+	 */
+	private static void search(Solution solution, Vehicle vehicle, int client, double[] costs, int[] previous) {
+		costs[client] = Vehicle.INFEASIBLE;
+		for(int position = 1; position <= vehicle.size() + 1; position++)
+			evaluate(vehicle, client, vehicle.getVertex(position - 1), position, costs, previous);
+	}
+
+	/**
+	 * Evaluate the insertion of a client before a position and keep it if it is the cheapest one
+	 * @param vehicle
+	 * @param client
+	 * @param before (vertex at position - 1)
+	 * @param position
+	 * @param costs
+	 * @param previous
+	 */
+	private static void evaluate(Vehicle vehicle, int client, int before, int position, double[] costs, int[] previous) {
+		double cost = vehicle.getInsertionCost(client, position);
+		if(cost < costs[client]) {
+			costs[client] = cost;
+			previous[client] = before;
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package algorithm.construction;
+
+import data.Data;
+import model.Solution;
+import model.Vehicle;
+import model.Vertex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * SweepBuilder class : builds a solution with the sweep heuristic
+ * <p>
+ * The clients are sorted by polar angle around the depot from a random starting angle, then each one is inserted
+ * at its cheapest feasible position in the current route, a new route is started when it does not fit
+ * (O(n * log(n)) for the sort plus O(route) per insertion).
+ * @author Julian DEGUT
+ */
+public class SweepBuilder implements InitialSolutionBuilder {
+
+	/**
+	 * Build method : build a solution with the sweep heuristic
+	 * @param data
+	 * @param random (starting angle)
+	 * @return solution
+	 */
+	@Override
+	public Solution build(Data data, RandomGenerator random) {
+		List<Vertex> vertices = data.getVertices();
+		Vertex depot = vertices.get(0);
+		double start = random.nextDouble() * 2 * Math.PI;
+		int nbVertices = data.getNbVertices();
+		double[] angles = new double[nbVertices];
+		Integer[] clients = new Integer[nbVertices - 1];
+		for(int client = 1; client < nbVertices; client++) {
+			Vertex vertex = vertices.get(client);
+			double angle = Math.atan2(vertex.getY() - depot.getY(), vertex.getX() - depot.getX()) - start;
+			angles[client] = angle < 0 ? angle + 2 * Math.PI : angle;
+			clients[client - 1] = client;
+		}
+		Arrays.sort(clients, Comparator.comparingDouble(client -> angles[client]));
+
+		List<Vehicle> vehicles = new ArrayList<>();
+		Vehicle vehicle = null;
+		for(int client : clients) {
+			int bestPosition = -1;
+			double bestCost = Vehicle.INFEASIBLE;
+			for(int position = 1; vehicle != null && position <= vehicle.size() + 1; position++) {
+				double cost = vehicle.getInsertionCost(client, position);
+				if(cost < bestCost) {
+					bestCost = cost;
+					bestPosition = position;
+				}
+			}
+			if(bestPosition < 0) {
+				vehicle = new Vehicle(data, new int[] {client});
+				vehicles.add(vehicle);
+			} else
+				vehicle.insert(bestPosition, client);
+		}
+		return new Solution(data, vehicles);
+	}
+}
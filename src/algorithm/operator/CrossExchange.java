@@ -1,19 +1,25 @@
 package algorithm.operator;
 
-import model.Client;
+import data.Data;
 import model.Neighbor;
 import model.Solution;
 import model.Vehicle;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.random.RandomGenerator;
 
 /**
  * CrossExchange class : implements the CrossExchange operator
+ * (position1..position2 : segment of the first vehicle, position3..position4 : segment of the second vehicle)
  * @author Julian DEGUT
  */
 public class CrossExchange extends Operator {
 
+	/**
+	 * Maximum number of clients of the segments walked by enumerate
+	 */
+	public static final int MAX_SEGMENT_LENGTH = 3;
+
 	/**
 	 * Constructor
 	 */
@@ -27,40 +33,17 @@ public class CrossExchange extends Operator {
 	 * @return neighbor
 	 */
 	@Override
-	public Neighbor inter(Solution solution, Vehicle v1, Vehicle v2) {
-		List<Client> clients1 = v1.getClients();
-		List<Client> clients2 = v2.getClients();
+	public Neighbor inter(Solution solution, RandomGenerator random, int v1, int v2) {
+		Vehicle vehicle1 = solution.getVehicles().get(v1);
+		Vehicle vehicle2 = solution.getVehicles().get(v2);
 
-		int index1 = random.nextInt(clients1.size());
-		int index2 = random.nextInt(clients1.size());
-		if(index1 > index2) {
-			int tmp = index1;
-			index1 = index2;
-			index2 = tmp;
-		}
-		int index3 = random.nextInt(clients2.size());
-		int index4 = random.nextInt(clients2.size());
-		if(index3 > index4) {
-			int tmp = index3;
-			index3 = index4;
-			index4 = tmp;
-		}
-
-		List<List<Client>> newClients = cross(clients1, clients2, index1, index2, index3, index4);
-		List<Client> newClients1 = newClients.get(0);
-		List<Client> newClients2 = newClients.get(1);
-		Vehicle newV1 = new Vehicle(v1.getDepot(), newClients1, solution.getData().getMaxQuantity());
-		Vehicle newV2 = new Vehicle(v2.getDepot(), newClients2, solution.getData().getMaxQuantity());
-		if(newV1.isValid() && newV2.isValid())
-			return new Neighbor(
-					this,
-					List.of(v1, v2),
-					List.of(newV1, newV2),
-					null,
-					List.of(index1, index2, index3, index4),
-					getNewCost(solution, v1, newV1, v2, newV2)
-			);
-		return null;
+		int position1 = getRandomPosition(random, vehicle1);
+		int position2 = getRandomPosition(random, vehicle1);
+		int position3 = getRandomPosition(random, vehicle2);
+		int position4 = getRandomPosition(random, vehicle2);
+		return neighbor(solution, v1, v2,
+				Math.min(position1, position2), Math.max(position1, position2),
+				Math.min(position3, position4), Math.max(position3, position4));
 	}
 
 	/**
@@ -69,34 +52,136 @@ public class CrossExchange extends Operator {
 	 * @return neighbor
 	 */
 	@Override
-	public Neighbor intra(Solution solution, Vehicle v) {
+	public Neighbor intra(Solution solution, RandomGenerator random, int v) {
 		return null;
 	}
 
 	/**
-	 * Cross method : cross two routes
-	 * @param clients1
-	 * @param clients2
-	 * @param index1
-	 * @param index2
-	 * @param index3
-	 * @param index4
-	 * @return newClients (list)
+	 * Granular scan method : cross a segment starting with the client and a segment starting just after its candidate
+	 * @param solution
+	 * @return neighbor
 	 */
-	private List<List<Client>> cross(List<Client> clients1, List<Client> clients2, int index1, int index2, int index3, int index4) {
-		List<Client> first1 = new ArrayList<>(clients1.subList(0, index1));
-		List<Client> first2 = new ArrayList<>(clients2.subList(0, index3));
-		List<Client> middle1 = new ArrayList<>(clients2.subList(index3, index4 + 1));
-		List<Client> middle2 = new ArrayList<>(clients1.subList(index1, index2 + 1));
-		List<Client> last1 = new ArrayList<>(clients1.subList(index2 + 1, clients1.size()));
-		List<Client> last2 = new ArrayList<>(clients2.subList(index4 + 1, clients2.size()));
+	@Override
+	protected Neighbor granular(Solution solution, RandomGenerator random, int client, int candidate) {
+		Vehicle vehicle1 = solution.getVehicle(client);
+		Vehicle vehicle2 = solution.getVehicle(candidate);
+		int position1 = solution.getPosition(client);
+		int position3 = solution.getPosition(candidate) + 1;
+		if(vehicle1 == vehicle2 || position3 > vehicle2.size())
+			return null;
+		int position2 = position1 + random.nextInt(vehicle1.size() - position1 + 1);
+		int position4 = position3 + random.nextInt(vehicle2.size() - position3 + 1);
+		return neighbor(solution, vehicle1.getIndex(), vehicle2.getIndex(), position1, position2, position3, position4);
+	}
 
-		List<Client> newClients1 = new ArrayList<>(first1);
-		newClients1.addAll(middle1);
-		newClients1.addAll(last1);
-		List<Client> newClients2 = new ArrayList<>(first2);
-		newClients2.addAll(middle2);
-		newClients2.addAll(last2);
-		return new ArrayList<>() {{add(newClients1); add(newClients2);}};
+	/**
+	 * Enumerate method : get the best cross exchange of two segments of v1 and v2 (at most MAX_SEGMENT_LENGTH clients)
+	 * The pairs of vehicles are symmetric, only v1 < v2 is walked. The segments exceeding the capacities
+	 * or not beating the threshold on their distance are skipped before checking the time windows.
+	 * @param solution
+	 * @return neighbor
+	 */
+	@Override
+	public Neighbor enumerate(Solution solution, int v1, int v2, double threshold, LongConsumer evaluations) {
+		if(v2 < v1)
+			return null;
+		Data data = solution.getData();
+		int count = 0;
+		Vehicle vehicle1 = solution.getVehicles().get(v1);
+		Vehicle vehicle2 = solution.getVehicles().get(v2);
+		int free1 = vehicle1.getMaxCapacity() - vehicle1.getLoad();
+		int free2 = vehicle2.getMaxCapacity() - vehicle2.getLoad();
+		int[] best = new int[4];
+		for(int p1 = 1; p1 <= vehicle1.size(); p1++) {
+			int before1 = vehicle1.getVertex(p1 - 1);
+			for(int p2 = p1; p2 <= Math.min(vehicle1.size(), p1 + MAX_SEGMENT_LENGTH - 1); p2++) {
+				int after1 = vehicle1.getVertex(p2 + 1);
+				int load1 = vehicle1.getLoad(p2) - vehicle1.getLoad(p1 - 1);
+				double removed1 = data.getDistance(before1, vehicle1.getVertex(p1)) + data.getDistance(vehicle1.getVertex(p2), after1);
+				for(int p3 = 1; p3 <= vehicle2.size(); p3++) {
+					int before2 = vehicle2.getVertex(p3 - 1);
+					for(int p4 = p3; p4 <= Math.min(vehicle2.size(), p3 + MAX_SEGMENT_LENGTH - 1); p4++) {
+						int load2 = vehicle2.getLoad(p4) - vehicle2.getLoad(p3 - 1);
+						if(load2 - load1 > free1 || load1 - load2 > free2)
+							continue;
+						int after2 = vehicle2.getVertex(p4 + 1);
+						double distance = data.getDistance(before1, vehicle2.getVertex(p3)) + data.getDistance(vehicle2.getVertex(p4), after1)
+								+ data.getDistance(before2, vehicle1.getVertex(p1)) + data.getDistance(vehicle1.getVertex(p2), after2)
+								- removed1 - data.getDistance(before2, vehicle2.getVertex(p3)) - data.getDistance(vehicle2.getVertex(p4), after2);
+						if(distance >= threshold)
+							continue;
+						double delta = delta(solution, v1, v2, p1, p2, p3, p4);
+						count++;
+						if(delta < threshold) {
+							threshold = delta;
+							best[0] = p1;
+							best[1] = p2;
+							best[2] = p3;
+							best[3] = p4;
+						}
+					}
+				}
+			}
+		}
+		evaluations.accept(count);
+		if(best[0] == 0)
+			return null;
+		return new Neighbor(this, v1, v2, best[0], best[1], best[2], best[3], threshold, solution.getTotalDistance() + threshold);
+	}
+
+	/**
+	 * Delta method : get the cost change of a cross exchange
+	 * @param solution
+	 * @return delta
+	 */
+	@Override
+	protected double delta(Solution solution, int v1, int v2, int p1, int p2, int p3, int p4) {
+		Data data = solution.getData();
+		Vehicle vehicle1 = solution.getVehicles().get(v1);
+		Vehicle vehicle2 = solution.getVehicles().get(v2);
+		double delta1 = splice(data, vehicle1, p1 - 1, vehicle2, p3, p4, vehicle1, p2 + 1, vehicle1.getDistance());
+		if(delta1 == INFEASIBLE)
+			return INFEASIBLE;
+		double delta2 = splice(data, vehicle2, p3 - 1, vehicle1, p1, p2, vehicle2, p4 + 1, vehicle2.getDistance());
+		if(delta2 == INFEASIBLE)
+			return INFEASIBLE;
+		return delta1 + delta2;
+	}
+
+	/**
+	 * Arcs method : get the arcs created by a cross exchange
+	 * @param solution
+	 * @param neighbor
+	 * @param arcs
+	 * @return number of arcs
+	 */
+	@Override
+	public int getArcs(Solution solution, Neighbor neighbor, int[] arcs) {
+		Vehicle vehicle1 = solution.getVehicles().get(neighbor.getVehicle1());
+		Vehicle vehicle2 = solution.getVehicles().get(neighbor.getVehicle2());
+		arcs[0] = vehicle1.getVertex(neighbor.getPosition1() - 1);
+		arcs[1] = vehicle2.getVertex(neighbor.getPosition3());
+		arcs[2] = vehicle2.getVertex(neighbor.getPosition4());
+		arcs[3] = vehicle1.getVertex(neighbor.getPosition2() + 1);
+		arcs[4] = vehicle2.getVertex(neighbor.getPosition3() - 1);
+		arcs[5] = vehicle1.getVertex(neighbor.getPosition1());
+		arcs[6] = vehicle1.getVertex(neighbor.getPosition2());
+		arcs[7] = vehicle2.getVertex(neighbor.getPosition4() + 1);
+		return 4;
+	}
+
+	/**
+	 * Apply method : cross the two segments
+	 * @param solution
+	 * @param neighbor
+	 */
+	@Override
+	protected void apply(Solution solution, Neighbor neighbor) {
+		Vehicle vehicle1 = solution.getVehicles().get(neighbor.getVehicle1());
+		Vehicle vehicle2 = solution.getVehicles().get(neighbor.getVehicle2());
+		int[] segment1 = vehicle1.toArray(neighbor.getPosition1(), neighbor.getPosition2());
+		int[] segment2 = vehicle2.toArray(neighbor.getPosition3(), neighbor.getPosition4());
+		vehicle1.replace(neighbor.getPosition1(), neighbor.getPosition2(), segment2, 0, segment2.length);
+		vehicle2.replace(neighbor.getPosition3(), neighbor.getPosition4(), segment1, 0, segment1.length);
 	}
 }
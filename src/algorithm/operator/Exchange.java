@@ -1,14 +1,16 @@
 package algorithm.operator;
 
-import model.Client;
+import data.Data;
 import model.Neighbor;
 import model.Solution;
 import model.Vehicle;
 
-import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.random.RandomGenerator;
 
 /**
  * Exchange class : implements the Exchange operator
+ * (position1 and position2 : clients exchanged)
  * @author Julian DEGUT
  */
 public class Exchange extends Operator {
@@ -27,83 +29,215 @@ public class Exchange extends Operator {
 	 * @return neighbor
 	 */
 	@Override
-	public Neighbor inter(Solution solution, Vehicle v1, Vehicle v2) {
-		List<Client> clients1 = v1.getClients();
-		List<Client> clients2 = v2.getClients();
-
-		Client c1 = getRandomClient(clients1);
-		Client c2 = getRandomClient(clients2);
+	public Neighbor inter(Solution solution, RandomGenerator random, int v1, int v2) {
+		int position1 = getRandomPosition(random, solution.getVehicles().get(v1));
+		int position2 = getRandomPosition(random, solution.getVehicles().get(v2));
+		return neighbor(solution, v1, v2, position1, position2, 0, 0);
+	}
 
-		List<Client> newClients1 = exchange(clients1, c1, c2, true);
-		List<Client> newClients2 = exchange(clients2, c2, c1, true);
+	/**
+	 * Intra Scan method : get a neighbor solution
+	 * @param solution
+	 * @return neighbor
+	 */
+	@Override
+	public Neighbor intra(Solution solution, RandomGenerator random, int v) {
+		Vehicle vehicle = solution.getVehicles().get(v);
+		int position1 = getRandomPosition(random, vehicle);
+		int position2 = getRandomPosition(random, vehicle, position1);
+		return neighbor(solution, v, -1, Math.min(position1, position2), Math.max(position1, position2), 0, 0);
+	}
 
-		Vehicle newV1 = new Vehicle(v1.getDepot(), newClients1, solution.getData().getMaxQuantity());
-		Vehicle newV2 = new Vehicle(v2.getDepot(), newClients2, solution.getData().getMaxQuantity());
-		if(newV1.isValid() && newV2.isValid())
-			return new Neighbor(
-					this,
-					List.of(v1, v2),
-					List.of(newV1, newV2),
-					List.of(c1, c2),
-					null,
-					getNewCost(solution, v1, newV1, v2, newV2)
-			);
-		return null;
+	/**
+	 * Granular scan method : exchange the client with the client just before or just after its candidate
+	 * @param solution
+	 * @return neighbor
+	 */
+	@Override
+	protected Neighbor granular(Solution solution, RandomGenerator random, int client, int candidate) {
+		Vehicle vehicle1 = solution.getVehicle(client);
+		Vehicle vehicle2 = solution.getVehicle(candidate);
+		int position1 = solution.getPosition(client);
+		int position2 = solution.getPosition(candidate) + (random.nextBoolean() ? 1 : -1);
+		if(position2 < 1 || position2 > vehicle2.size())
+			return null;
+		if(getType() == OperatorType.INTER) {
+			if(vehicle1 == vehicle2)
+				return null;
+			return neighbor(solution, vehicle1.getIndex(), vehicle2.getIndex(), position1, position2, 0, 0);
+		}
+		if(vehicle1 != vehicle2 || position1 == position2)
+			return null;
+		return neighbor(solution, vehicle1.getIndex(), -1, Math.min(position1, position2), Math.max(position1, position2), 0, 0);
 	}
 
 	/**
-	 * Intra Scan method : get a neighbor solution
+	 * Enumerate method : get the best exchange of two clients of v1 and v2 (or of v1 if v2 = -1)
+	 * The pairs of vehicles are symmetric, only v1 < v2 is walked. The exchanges exceeding the capacities
+	 * or not beating the threshold on their distance are skipped before checking the time windows.
 	 * @param solution
 	 * @return neighbor
 	 */
 	@Override
-	public Neighbor intra(Solution solution, Vehicle v) {
-		List<Client> clients = v.getClients();
+	public Neighbor enumerate(Solution solution, int v1, int v2, double threshold, LongConsumer evaluations) {
+		if((v2 < 0) != (getType() == OperatorType.INTRA) || (v2 >= 0 && v2 < v1))
+			return null;
+		Data data = solution.getData();
+		int count = 0;
+		Vehicle vehicle1 = solution.getVehicles().get(v1);
+		int best1 = 0;
+		int best2 = 0;
+		if(v2 < 0) {
+			for(int i = 1; i < vehicle1.size(); i++) {
+				for(int j = i + 1; j <= vehicle1.size(); j++) {
+					double delta = intraDelta(data, vehicle1, i, j);
+					count++;
+					if(delta < threshold) {
+						threshold = delta;
+						best1 = i;
+						best2 = j;
+					}
+				}
+			}
+		} else {
+			Vehicle vehicle2 = solution.getVehicles().get(v2);
+			int free1 = vehicle1.getMaxCapacity() - vehicle1.getLoad();
+			int free2 = vehicle2.getMaxCapacity() - vehicle2.getLoad();
+			for(int p1 = 1; p1 <= vehicle1.size(); p1++) {
+				int client1 = vehicle1.getVertex(p1);
+				int before1 = vehicle1.getVertex(p1 - 1);
+				int after1 = vehicle1.getVertex(p1 + 1);
+				double removal1 = data.getDistance(before1, client1) + data.getDistance(client1, after1);
+				for(int p2 = 1; p2 <= vehicle2.size(); p2++) {
+					int client2 = vehicle2.getVertex(p2);
+					int demand = data.getDemand(client2) - data.getDemand(client1);
+					if(demand > free1 || -demand > free2)
+						continue;
+					int before2 = vehicle2.getVertex(p2 - 1);
+					int after2 = vehicle2.getVertex(p2 + 1);
+					double distance = data.getDistance(before1, client2) + data.getDistance(client2, after1) - removal1
+							+ data.getDistance(before2, client1) + data.getDistance(client1, after2)
+							- data.getDistance(before2, client2) - data.getDistance(client2, after2);
+					if(distance >= threshold)
+						continue;
+					double delta = delta(solution, v1, v2, p1, p2, 0, 0);
+					count++;
+					if(delta < threshold) {
+						threshold = delta;
+						best1 = p1;
+						best2 = p2;
+					}
+				}
+			}
+		}
+		evaluations.accept(count);
+		if(best1 == 0)
+			return null;
+		return new Neighbor(this, v1, v2, best1, best2, 0, 0, threshold, solution.getTotalDistance() + threshold);
+	}
 
-		Client c1 = getRandomClient(clients);
-		Client c2 = null;
-		while(c2 == null) {
-			c2 = getRandomClient(clients, c1);
+	/**
+	 * Delta method : get the cost change of an exchange
+	 * @param solution
+	 * @return delta
+	 */
+	@Override
+	protected double delta(Solution solution, int v1, int v2, int p1, int p2, int p3, int p4) {
+		Data data = solution.getData();
+		Vehicle vehicle1 = solution.getVehicles().get(v1);
+		if(v2 < 0)
+			return intraDelta(data, vehicle1, p1, p2);
+		Vehicle vehicle2 = solution.getVehicles().get(v2);
+		double delta1 = splice(data, vehicle1, p1 - 1, vehicle2, p2, p2, vehicle1, p1 + 1, vehicle1.getDistance());
+		if(delta1 == INFEASIBLE)
+			return INFEASIBLE;
+		double delta2 = splice(data, vehicle2, p2 - 1, vehicle1, p1, p1, vehicle2, p2 + 1, vehicle2.getDistance());
+		if(delta2 == INFEASIBLE)
+			return INFEASIBLE;
+		return delta1 + delta2;
+	}
+
+	/**
+	 * Delta method : get the cost change of an exchange inside a vehicle
+	 * @param data
+	 * @param vehicle
+	 * @param i (first position)
+	 * @param j (second position, i < j)
+	 * @return delta
+	 */
+	private double intraDelta(Data data, Vehicle vehicle, int i, int j) {
+		int client1 = vehicle.getVertex(i);
+		int client2 = vehicle.getVertex(j);
+		int before1 = vehicle.getVertex(i - 1);
+		int after2 = vehicle.getVertex(j + 1);
+		double departure = Vehicle.visit(data, before1, vehicle.getDeparture(i - 1), client2);
+		int last = client2;
+		if(j > i + 1) {
+			departure = vehicle.visit(client2, departure, i + 1, j - 1);
+			last = vehicle.getVertex(j - 1);
 		}
+		departure = Vehicle.visit(data, last, departure, client1);
+		if(!vehicle.canReach(client1, departure, j + 1))
+			return INFEASIBLE;
+		if(j == i + 1)
+			return data.getDistance(before1, client2) + data.getDistance(client1, after2)
+					- data.getDistance(before1, client1) - data.getDistance(client2, after2);
+		int after1 = vehicle.getVertex(i + 1);
+		int before2 = vehicle.getVertex(j - 1);
+		return data.getDistance(before1, client2) + data.getDistance(client2, after1)
+				- data.getDistance(before1, client1) - data.getDistance(client1, after1)
+				+ data.getDistance(before2, client1) + data.getDistance(client1, after2)
+				- data.getDistance(before2, client2) - data.getDistance(client2, after2);
+	}
 
-		List<Client> newClients = exchange(clients, c1, c2, false);
-		Vehicle newV = new Vehicle(v.getDepot(), newClients, solution.getData().getMaxQuantity());
-		if(newV.isValid())
-			return new Neighbor(
-					this,
-					List.of(v),
-					List.of(newV),
-					List.of(c1, c2),
-					null,
-					getNewCost(solution, v, newV, null, null)
-			);
-		return null;
+	/**
+	 * Arcs method : get the arcs created by an exchange
+	 * @param solution
+	 * @param neighbor
+	 * @param arcs
+	 * @return number of arcs
+	 */
+	@Override
+	public int getArcs(Solution solution, Neighbor neighbor, int[] arcs) {
+		Vehicle vehicle1 = solution.getVehicles().get(neighbor.getVehicle1());
+		Vehicle vehicle2 = neighbor.getVehicle2() < 0 ? vehicle1 : solution.getVehicles().get(neighbor.getVehicle2());
+		int i = neighbor.getPosition1();
+		int j = neighbor.getPosition2();
+		int client1 = vehicle1.getVertex(i);
+		int client2 = vehicle2.getVertex(j);
+		arcs[0] = vehicle1.getVertex(i - 1);
+		arcs[1] = client2;
+		arcs[6] = client1;
+		arcs[7] = vehicle2.getVertex(j + 1);
+		if(vehicle1 == vehicle2 && j == i + 1) { // adjacent clients
+			arcs[2] = client2;
+			arcs[3] = client1;
+			arcs[4] = arcs[6];
+			arcs[5] = arcs[7];
+			return 3;
+		}
+		arcs[2] = client2;
+		arcs[3] = vehicle1.getVertex(i + 1);
+		arcs[4] = vehicle2.getVertex(j - 1);
+		arcs[5] = client1;
+		return 4;
 	}
 
 	/**
-	 * Exchange method : exchange two clients
-	 * @param clients
-	 * @param client1
-	 * @param client2
-	 * @param inter
-	 * @return clients
+	 * Apply method : exchange the clients
+	 * @param solution
+	 * @param neighbor
 	 */
-	private List<Client> exchange(List<Client> clients, Client client1, Client client2, boolean inter) {
-		if(inter)
-			return clients.stream()
-					.map(client -> {
-						if (client.equals(client1))
-							return client2;
-						return client;
-					}).toList();
-		else
-			return clients.stream()
-					.map(client -> {
-						if (client.equals(client1))
-							return client2;
-						if (client.equals(client2))
-							return client1;
-						return client;
-					}).toList();
+	@Override
+	protected void apply(Solution solution, Neighbor neighbor) {
+		Vehicle vehicle1 = solution.getVehicles().get(neighbor.getVehicle1());
+		if(neighbor.getVehicle2() < 0) {
+			vehicle1.swap(neighbor.getPosition1(), neighbor.getPosition2());
+			return;
+		}
+		Vehicle vehicle2 = solution.getVehicles().get(neighbor.getVehicle2());
+		int client1 = vehicle1.getVertex(neighbor.getPosition1());
+		vehicle1.set(neighbor.getPosition1(), vehicle2.getVertex(neighbor.getPosition2()));
+		vehicle2.set(neighbor.getPosition2(), client1);
 	}
 }
@@ -1,20 +1,30 @@
 package algorithm.operator;
 
-import model.Client;
+import data.Data;
 import model.Neighbor;
 import model.Solution;
 import model.Vehicle;
 
-import java.util.List;
-import java.util.Random;
+import java.util.function.LongConsumer;
+import java.util.random.RandomGenerator;
 
 /**
  * Operator class : implements the Operator class
+ * <p>
+ * A move is described by a neighbor (vehicles indexes and positions). Its cost change and its feasibility
+ * are computed by delta without building any route, only the moves accepted are applied by execute.
  * @author Julian DEGUT
  */
 public abstract class Operator {
 
-	protected static Random random = new Random();
+	/**
+	 * Value returned by delta when a move is not feasible
+	 */
+	public static final double INFEASIBLE = Vehicle.INFEASIBLE;
+	/**
+	 * Maximum number of arcs created by a move (size of the arcs array / 2)
+	 */
+	public static final int MAX_ARCS = 4;
 	private final OperatorType type;
 	private final int minClientsPerVehicle;
 
@@ -24,134 +34,231 @@ public abstract class Operator {
 	 * @param minClientsPerVehicle
 	 */
 	protected Operator(OperatorType type, int minClientsPerVehicle) {
+		if(minClientsPerVehicle > Solution.MAX_SIZE_CLASS)
+			throw new IllegalArgumentException("minClientsPerVehicle > " + Solution.MAX_SIZE_CLASS);
 		this.type = type;
 		this.minClientsPerVehicle = minClientsPerVehicle;
 	}
 
 	/**
-	 * Inter scan method
+	 * Inter scan method : draw a move between two vehicles
 	 * @param solution
-	 * @param v1
-	 * @param v2
-	 * @return
+	 * @param random
+	 * @param v1 (index in the solution)
+	 * @param v2 (index in the solution)
+	 * @return neighbor, null if the move is not feasible
 	 */
-	protected abstract Neighbor inter(Solution solution, Vehicle v1, Vehicle v2);
+	protected abstract Neighbor inter(Solution solution, RandomGenerator random, int v1, int v2);
 
 	/**
-	 * Intra scan method
+	 * Intra scan method : draw a move inside a vehicle
 	 * @param solution
-	 * @param v
-	 * @return
+	 * @param random
+	 * @param v (index in the solution)
+	 * @return neighbor, null if the move is not feasible
+	 */
+	protected abstract Neighbor intra(Solution solution, RandomGenerator random, int v);
+
+	/**
+	 * Delta method : get the cost change of a move without applying it
+	 * @param solution
+	 * @param v1 (index in the solution)
+	 * @param v2 (index in the solution, -1 for intra moves)
+	 * @param p1
+	 * @param p2
+	 * @param p3
+	 * @param p4
+	 * @return cost change, INFEASIBLE if the move is not feasible
+	 */
+	protected abstract double delta(Solution solution, int v1, int v2, int p1, int p2, int p3, int p4);
+
+	/**
+	 * Apply method : apply a move to the vehicles of the solution
+	 * @param solution
+	 * @param neighbor
+	 */
+	protected abstract void apply(Solution solution, Neighbor neighbor);
+
+	/**
+	 * Arcs method : get the arcs created by a move without applying it
+	 * (the arcs of a reversed segment are not listed, only its end arcs)
+	 * @param solution
+	 * @param neighbor
+	 * @param arcs (from, to pairs of vertices, 2 * MAX_ARCS long)
+	 * @return number of arcs
 	 */
-	protected abstract Neighbor intra(Solution solution, Vehicle v);
+	public abstract int getArcs(Solution solution, Neighbor neighbor, int[] arcs);
 
 	/**
 	 * Generic scan method : get a neighbor solution
 	 * @param solution
+	 * @param random (generator of the calling thread)
 	 * @return neighbor
 	 */
-	public Neighbor scan(Solution solution) {
-		List<Vehicle> vehicles = solution.getVehicles();
+	public Neighbor scan(Solution solution, RandomGenerator random) {
 		if(type == OperatorType.INTER) {
-			Vehicle v1 = getRandomVehicle(vehicles);
-			Vehicle v2 = getRandomVehicle(vehicles, v1);
-			if(v1 == null || v2 == null) return null;
-			return inter(solution, v1, v2);
+			int v1 = solution.getRandomVehicle(random, minClientsPerVehicle);
+			int v2 = solution.getRandomVehicle(random, minClientsPerVehicle, v1);
+			if(v1 < 0 || v2 < 0) return null;
+			return inter(solution, random, v1, v2);
 		} else {
-			Vehicle v = getRandomVehicle(vehicles);
-			if(v == null) return null;
-			return intra(solution, v);
+			int v = solution.getRandomVehicle(random, minClientsPerVehicle);
+			if(v < 0) return null;
+			return intra(solution, random, v);
 		}
 	}
 
 	/**
-	 * Execute method : execute a neighbor solution
+	 * Granular scan method : get a neighbor solution creating an arc of the candidate lists of the data
+	 * (a random client and one of its candidates)
+	 * @param solution
+	 * @param random (generator of the calling thread)
+	 * @param granular (false for a plain scan)
+	 * @return neighbor
 	 */
-	public void execute(Solution solution, Neighbor neighbor) {
-		Vehicle vehicle1 = neighbor.getVehicles().get(0);
-		Vehicle newVehicle1 = neighbor.getNewVehicles().get(0);
-		if(newVehicle1.getClients().size() > 0) // InterRelocate case : route1.getPath().size() can be equal to 1
-			vehicle1.setClients(newVehicle1.getClients());
-		else
-			solution.getVehicles().remove(vehicle1);
-
-		Vehicle vehicle2;
-		Vehicle newVehicle2;
-		if(neighbor.getVehicles().size() > 1 && neighbor.getNewVehicles().size() > 1) {
-			vehicle2 = neighbor.getVehicles().get(1);
-			newVehicle2 = neighbor.getNewVehicles().get(1);
-			vehicle2.setClients(newVehicle2.getClients());
-		}
+	public Neighbor scan(Solution solution, RandomGenerator random, boolean granular) {
+		if(!granular)
+			return scan(solution, random);
+		Data data = solution.getData();
+		int client = 1 + random.nextInt(data.getNbVertices() - 1);
+		int nbCandidates = data.getNbCandidates(client);
+		if(nbCandidates == 0)
+			return null;
+		return granular(solution, random, client, data.getCandidate(client, random.nextInt(nbCandidates)));
 	}
 
 	/**
-	 * Get a random vehicle
-	 * @param vehicles
-	 * @return
+	 * Granular scan method : draw a move creating an arc between a client and one of its candidates
+	 * (a plain scan for the operators which cannot target an arc)
+	 * @param solution
+	 * @param random
+	 * @param client (dense index)
+	 * @param candidate (dense index)
+	 * @return neighbor, null if the move is not feasible
 	 */
-	private Vehicle getRandomVehicle(List<Vehicle> vehicles) {
-		return vehicles.stream()
-				.filter(v -> v.getClients().size() >= minClientsPerVehicle)
-				.skip(random.nextInt(vehicles.size()))
-				.findFirst()
-				.orElse(null);
+	protected Neighbor granular(Solution solution, RandomGenerator random, int client, int candidate) {
+		return scan(solution, random);
 	}
 
 	/**
-	 * Get a random vehicle excluding the given one
-	 * @param vehicles
-	 * @param exclude
-	 * @return
+	 * Enumerate method : get the best move between two vehicles (or inside a vehicle) whose cost change is below
+	 * a threshold, the moves are walked with an O(1) evaluation and pruned on their distance, load and time windows
+	 * (no move for the operators which cannot enumerate their moves)
+	 * @param solution
+	 * @param v1 (index in the solution)
+	 * @param v2 (index in the solution, -1 for the intra moves of v1)
+	 * @param threshold (cost change to beat)
+	 * @param evaluations (receives the number of moves whose cost change has been evaluated)
+	 * @return best neighbor, null if no move is below the threshold
 	 */
-	private Vehicle getRandomVehicle(List<Vehicle> vehicles, Vehicle exclude) {
-		return vehicles.stream()
-				.filter(v -> v.getClients().size() >= minClientsPerVehicle)
-				.filter(v -> v != exclude)
-				.skip(random.nextInt(vehicles.size()))
-				.findFirst()
-				.orElse(null);
+	public Neighbor enumerate(Solution solution, int v1, int v2, double threshold, LongConsumer evaluations) {
+		return null;
 	}
 
 	/**
-	 * Get a random client
-	 * @param clients
-	 * @return
+	 * Delta method : get the cost change of a neighbor without applying it
+	 * @param solution
+	 * @param neighbor
+	 * @return cost change, INFEASIBLE if the move is not feasible
 	 */
-	protected Client getRandomClient(List<Client> clients) {
-		return clients.stream()
-				.skip(random.nextInt(clients.size()))
-				.findFirst()
-				.orElse(null);
+	public double delta(Solution solution, Neighbor neighbor) {
+		return delta(solution, neighbor.getVehicle1(), neighbor.getVehicle2(),
+				neighbor.getPosition1(), neighbor.getPosition2(), neighbor.getPosition3(), neighbor.getPosition4());
 	}
 
 	/**
-	 * Get a random client excluding the given one
-	 * @param clients
-	 * @param exclude
-	 * @return
+	 * Execute method : execute a neighbor solution (empty vehicles are removed)
 	 */
-	protected Client getRandomClient(List<Client> clients, Client exclude) {
-		return clients.stream()
-				.filter(c -> c != exclude)
-				.skip(random.nextInt(clients.size()))
-				.findFirst()
-				.orElse(null);
+	public void execute(Solution solution, Neighbor neighbor) {
+		Vehicle vehicle1 = solution.getVehicles().get(neighbor.getVehicle1());
+		Vehicle vehicle2 = neighbor.getVehicle2() < 0 ? null : solution.getVehicles().get(neighbor.getVehicle2());
+		apply(solution, neighbor);
+		if(vehicle1.size() == 0) // InterRelocate case : the first vehicle can be emptied
+			solution.removeVehicle(vehicle1);
+		if(vehicle2 != null && vehicle2.size() == 0)
+			solution.removeVehicle(vehicle2);
 	}
 
 	/**
-	 * Get new cost of a neighbor solution
+	 * Create a neighbor if the move is feasible
 	 * @param solution
 	 * @param v1
-	 * @param newV1
 	 * @param v2
-	 * @param newV2
-	 * @return
+	 * @param p1
+	 * @param p2
+	 * @param p3
+	 * @param p4
+	 * @return neighbor, null if the move is not feasible
+	 */
+	protected Neighbor neighbor(Solution solution, int v1, int v2, int p1, int p2, int p3, int p4) {
+		double delta = delta(solution, v1, v2, p1, p2, p3, p4);
+		if(delta == INFEASIBLE)
+			return null;
+		return new Neighbor(this, v1, v2, p1, p2, p3, p4, delta, solution.getTotalDistance() + delta);
+	}
+
+	/**
+	 * Get the cost change of a route rebuilt from a prefix [0..end1] of a vehicle, a segment [from..to] of another
+	 * vehicle (walked backward if from > to) and a suffix [start2..size+1] of a vehicle
+	 * @param data
+	 * @param prefix
+	 * @param end1
+	 * @param middle (null for no segment)
+	 * @param from
+	 * @param to
+	 * @param suffix
+	 * @param start2
+	 * @param old (distance of the replaced route)
+	 * @return distance of the new route minus old, INFEASIBLE if the new route is not valid
+	 */
+	protected static double splice(Data data, Vehicle prefix, int end1, Vehicle middle, int from, int to, Vehicle suffix, int start2, double old) {
+		int last = prefix.getVertex(end1);
+		double departure = prefix.getDeparture(end1);
+		double distance = prefix.getDistance(end1);
+		int load = prefix.getLoad(end1) + suffix.getLoad() - suffix.getLoad(start2 - 1);
+		if(middle != null) {
+			load += middle.getLoad(Math.max(from, to)) - middle.getLoad(Math.min(from, to) - 1);
+			if(load > prefix.getMaxCapacity())
+				return INFEASIBLE;
+			departure = middle.visit(last, departure, from, to);
+			distance += data.getDistance(last, middle.getVertex(from)) + Math.abs(middle.getDistance(to) - middle.getDistance(from));
+			last = middle.getVertex(to);
+		} else if(load > prefix.getMaxCapacity())
+			return INFEASIBLE;
+		if(!suffix.canReach(last, departure, start2))
+			return INFEASIBLE;
+		distance += data.getDistance(last, suffix.getVertex(start2)) + suffix.getDistance() - suffix.getDistance(start2);
+		return distance - old;
+	}
+
+	/**
+	 * Get a random client position
+	 * @param random
+	 * @param vehicle
+	 * @return position (1..size)
+	 */
+	protected static int getRandomPosition(RandomGenerator random, Vehicle vehicle) {
+		return 1 + random.nextInt(vehicle.size());
+	}
+
+	/**
+	 * Get a random client position excluding the given one
+	 * @param random
+	 * @param vehicle (at least 2 clients)
+	 * @param exclude
+	 * @return position (1..size)
+	 */
+	protected static int getRandomPosition(RandomGenerator random, Vehicle vehicle, int exclude) {
+		int position = 1 + random.nextInt(vehicle.size() - 1);
+		return position >= exclude ? position + 1 : position;
+	}
+
+	/**
+	 * Get the type of the operator
+	 * @return type
 	 */
-	protected double getNewCost(Solution solution, Vehicle v1, Vehicle newV1, Vehicle v2, Vehicle newV2) {
-		if(v2 != null && newV2 != null)
-			return solution.getTotalDistance() - v1.getDistance() - v2.getDistance() + newV1.getDistance() + newV2.getDistance();
-		else
-			return solution.getTotalDistance() - v1.getDistance() + newV1.getDistance();
+	public OperatorType getType() {
+		return type;
 	}
 
 	/**
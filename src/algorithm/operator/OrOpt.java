@@ -0,0 +1,238 @@
+package algorithm.operator;
+
+import data.Data;
+import model.Neighbor;
+import model.Solution;
+import model.Vehicle;
+
+import java.util.function.LongConsumer;
+import java.util.random.RandomGenerator;
+
+/**
+ * OrOpt class : implements the Or-opt operator (move of a segment of 1 to MAX_SEGMENT_LENGTH clients)
+ * (position1..position2 : segment moved, position3 : insertion position, before the vertex at this position)
+ * An inter move is evaluated in O(1) with the forward & backward data of the vehicles, an intra move walks
+ * the clients between the segment and the insertion position, like an intra relocation.
+ * @author Julian DEGUT
+ */
+public class OrOpt extends Operator {
+
+	/**
+	 * Maximum number of clients of the segments
+	 */
+	public static final int MAX_SEGMENT_LENGTH = 3;
+
+	/**
+	 * Constructor
+	 */
+	public OrOpt(OperatorType operatorType) {
+		super(operatorType, operatorType == OperatorType.INTRA ? 2 : 1);
+	}
+
+	/**
+	 * Inter scan method : get a neighbor solution
+	 * @param solution
+	 * @return neighbor
+	 */
+	@Override
+	public Neighbor inter(Solution solution, RandomGenerator random, int v1, int v2) {
+		Vehicle vehicle1 = solution.getVehicles().get(v1);
+		int position1 = getRandomPosition(random, vehicle1);
+		int position2 = position1 + random.nextInt(Math.min(MAX_SEGMENT_LENGTH, vehicle1.size() - position1 + 1));
+		int position3 = 1 + random.nextInt(solution.getVehicles().get(v2).size() + 1);
+		return neighbor(solution, v1, v2, position1, position2, position3, 0);
+	}
+
+	/**
+	 * Intra scan method : get a neighbor solution
+	 * @param solution
+	 * @return neighbor
+	 */
+	@Override
+	public Neighbor intra(Solution solution, RandomGenerator random, int v) {
+		Vehicle vehicle = solution.getVehicles().get(v);
+		int position1 = getRandomPosition(random, vehicle);
+		int length = 1 + random.nextInt(Math.min(MAX_SEGMENT_LENGTH, vehicle.size() - position1 + 1));
+		if(length == vehicle.size())
+			return null;
+		int position3 = 1 + random.nextInt(vehicle.size() - length); // positions outside position1..position2+1
+		if(position3 >= position1)
+			position3 += length + 1;
+		return neighbor(solution, v, -1, position1, position1 + length - 1, position3, 0);
+	}
+
+	/**
+	 * Granular scan method : move the segment starting with the client just after its candidate,
+	 * or the segment ending with the client just before its candidate
+	 * @param solution
+	 * @return neighbor
+	 */
+	@Override
+	protected Neighbor granular(Solution solution, RandomGenerator random, int client, int candidate) {
+		Vehicle vehicle1 = solution.getVehicle(client);
+		Vehicle vehicle2 = solution.getVehicle(candidate);
+		if((vehicle1 == vehicle2) != (getType() == OperatorType.INTRA))
+			return null;
+		int position = solution.getPosition(client);
+		int length = 1 + random.nextInt(MAX_SEGMENT_LENGTH);
+		int position1;
+		int position2;
+		int position3;
+		if(random.nextBoolean()) {
+			position1 = position;
+			position2 = Math.min(vehicle1.size(), position + length - 1);
+			position3 = solution.getPosition(candidate) + 1;
+		} else {
+			position1 = Math.max(1, position - length + 1);
+			position2 = position;
+			position3 = solution.getPosition(candidate);
+		}
+		if(vehicle1 == vehicle2 && position3 >= position1 && position3 <= position2 + 1)
+			return null;
+		return neighbor(solution, vehicle1.getIndex(), vehicle1 == vehicle2 ? -1 : vehicle2.getIndex(), position1, position2, position3, 0);
+	}
+
+	/**
+	 * Enumerate method : get the best move of a segment of v1 (in v2 or in v1 if v2 = -1)
+	 * The segments exceeding the capacity or whose removal does not beat the threshold are skipped,
+	 * and the inter insertion positions are walked until the segment cannot be reached in time.
+	 * @param solution
+	 * @return neighbor
+	 */
+	@Override
+	public Neighbor enumerate(Solution solution, int v1, int v2, double threshold, LongConsumer evaluations) {
+		if((v2 < 0) != (getType() == OperatorType.INTRA))
+			return null;
+		Data data = solution.getData();
+		int count = 0;
+		Vehicle vehicle1 = solution.getVehicles().get(v1);
+		Vehicle vehicle2 = v2 < 0 ? vehicle1 : solution.getVehicles().get(v2);
+		int free = vehicle2.getMaxCapacity() - vehicle2.getLoad();
+		int[] best = new int[3];
+		for(int p1 = 1; p1 <= vehicle1.size(); p1++) {
+			int first = vehicle1.getVertex(p1);
+			int before = vehicle1.getVertex(p1 - 1);
+			for(int p2 = p1; p2 <= Math.min(vehicle1.size(), p1 + MAX_SEGMENT_LENGTH - 1); p2++) {
+				if(v2 >= 0 && vehicle1.getLoad(p2) - vehicle1.getLoad(p1 - 1) > free)
+					break;
+				int last = vehicle1.getVertex(p2);
+				int after = vehicle1.getVertex(p2 + 1);
+				double removal = data.getDistance(before, after) - data.getDistance(before, first) - data.getDistance(last, after);
+				if(removal >= threshold)
+					continue;
+				for(int p3 = 1; p3 <= vehicle2.size() + 1; p3++) {
+					if(v2 < 0 && p3 >= p1 && p3 <= p2 + 1)
+						continue;
+					int previous = vehicle2.getVertex(p3 - 1);
+					if(v2 >= 0 && vehicle2.getDeparture(p3 - 1) + data.getTravelTime(previous, first) > data.getDueTime(first) + Vehicle.EPSILON)
+						break; // the next positions are reached later
+					int next = vehicle2.getVertex(p3);
+					double distance = removal + data.getDistance(previous, first) + data.getDistance(last, next) - data.getDistance(previous, next);
+					if(distance >= threshold)
+						continue;
+					double delta = delta(solution, v1, v2, p1, p2, p3, 0);
+					count++;
+					if(delta < threshold) {
+						threshold = delta;
+						best[0] = p1;
+						best[1] = p2;
+						best[2] = p3;
+					}
+				}
+			}
+		}
+		evaluations.accept(count);
+		if(best[0] == 0)
+			return null;
+		return new Neighbor(this, v1, v2, best[0], best[1], best[2], 0, threshold, solution.getTotalDistance() + threshold);
+	}
+
+	/**
+	 * Delta method : get the cost change of a segment move
+	 * @param solution
+	 * @return delta
+	 */
+	@Override
+	protected double delta(Solution solution, int v1, int v2, int p1, int p2, int p3, int p4) {
+		Data data = solution.getData();
+		Vehicle vehicle1 = solution.getVehicles().get(v1);
+		if(v2 < 0)
+			return intraDelta(data, vehicle1, p1, p2, p3);
+		Vehicle vehicle2 = solution.getVehicles().get(v2);
+		double delta1 = splice(data, vehicle1, p1 - 1, null, 0, 0, vehicle1, p2 + 1, vehicle1.getDistance());
+		if(delta1 == INFEASIBLE)
+			return INFEASIBLE;
+		double delta2 = splice(data, vehicle2, p3 - 1, vehicle1, p1, p2, vehicle2, p3, vehicle2.getDistance());
+		if(delta2 == INFEASIBLE)
+			return INFEASIBLE;
+		return delta1 + delta2;
+	}
+
+	/**
+	 * Delta method : get the cost change of a segment move inside a vehicle
+	 * @param data
+	 * @param vehicle
+	 * @param from (first position of the segment)
+	 * @param to (last position of the segment)
+	 * @param position (insertion position, outside from..to+1)
+	 * @return delta
+	 */
+	private double intraDelta(Data data, Vehicle vehicle, int from, int to, int position) {
+		int first = vehicle.getVertex(from);
+		int last = vehicle.getVertex(to);
+		int previous = vehicle.getVertex(position - 1);
+		int next = vehicle.getVertex(position);
+		if(position < from) { // segment, then position..from-1
+			double departure = vehicle.visit(previous, vehicle.getDeparture(position - 1), from, to);
+			departure = vehicle.visit(last, departure, position, from - 1);
+			if(!vehicle.canReach(vehicle.getVertex(from - 1), departure, to + 1))
+				return INFEASIBLE;
+		} else { // to+1..position-1, then segment
+			double departure = vehicle.visit(vehicle.getVertex(from - 1), vehicle.getDeparture(from - 1), to + 1, position - 1);
+			departure = vehicle.visit(previous, departure, from, to);
+			if(!vehicle.canReach(last, departure, position))
+				return INFEASIBLE;
+		}
+		int before = vehicle.getVertex(from - 1);
+		int after = vehicle.getVertex(to + 1);
+		return data.getDistance(before, after) - data.getDistance(before, first) - data.getDistance(last, after)
+				+ data.getDistance(previous, first) + data.getDistance(last, next) - data.getDistance(previous, next);
+	}
+
+	/**
+	 * Arcs method : get the arcs created by a segment move
+	 * @param solution
+	 * @param neighbor
+	 * @param arcs
+	 * @return number of arcs
+	 */
+	@Override
+	public int getArcs(Solution solution, Neighbor neighbor, int[] arcs) {
+		Vehicle vehicle1 = solution.getVehicles().get(neighbor.getVehicle1());
+		Vehicle vehicle2 = neighbor.getVehicle2() < 0 ? vehicle1 : solution.getVehicles().get(neighbor.getVehicle2());
+		arcs[0] = vehicle1.getVertex(neighbor.getPosition1() - 1);
+		arcs[1] = vehicle1.getVertex(neighbor.getPosition2() + 1);
+		arcs[2] = vehicle2.getVertex(neighbor.getPosition3() - 1);
+		arcs[3] = vehicle1.getVertex(neighbor.getPosition1());
+		arcs[4] = vehicle1.getVertex(neighbor.getPosition2());
+		arcs[5] = vehicle2.getVertex(neighbor.getPosition3());
+		return 3;
+	}
+
+	/**
+	 * Apply method : move the segment
+	 * @param solution
+	 * @param neighbor
+	 */
+	@Override
+	protected void apply(Solution solution, Neighbor neighbor) {
+		Vehicle vehicle1 = solution.getVehicles().get(neighbor.getVehicle1());
+		Vehicle vehicle2 = neighbor.getVehicle2() < 0 ? vehicle1 : solution.getVehicles().get(neighbor.getVehicle2());
+		int[] segment = vehicle1.toArray(neighbor.getPosition1(), neighbor.getPosition2());
+		int position = neighbor.getPosition3();
+		if(vehicle1 == vehicle2 && position > neighbor.getPosition2())
+			position -= segment.length;
+		vehicle1.replace(neighbor.getPosition1(), neighbor.getPosition2(), null, 0, 0);
+		vehicle2.replace(position, position - 1, segment, 0, segment.length);
+	}
+}
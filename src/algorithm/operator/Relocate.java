@@ -1,15 +1,16 @@
 package algorithm.operator;
 
-import model.Client;
+import data.Data;
 import model.Neighbor;
 import model.Solution;
 import model.Vehicle;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.random.RandomGenerator;
 
 /**
  * Relocate class : implements the Relocate operator
+ * (position1 : client moved, position2 : insertion position for inter, final position for intra)
  * @author Julian DEGUT
  */
 public class Relocate extends Operator {
@@ -27,57 +28,211 @@ public class Relocate extends Operator {
 	 * @return neighbor
 	 */
 	@Override
-	public Neighbor inter(Solution solution, Vehicle v1, Vehicle v2) {
-		List<Client> clients1 = v1.getClients();
-		List<Client> clients2 = v2.getClients();
-
-		Client c1 = getRandomClient(clients1);
-		int index = random.nextInt(clients2.size());
+	public Neighbor inter(Solution solution, RandomGenerator random, int v1, int v2) {
+		int position1 = getRandomPosition(random, solution.getVehicles().get(v1));
+		int position2 = 1 + random.nextInt(solution.getVehicles().get(v2).size() + 1);
+		return neighbor(solution, v1, v2, position1, position2, 0, 0);
+	}
 
-		List<Client> newClients1 = new ArrayList<>(clients1) {{remove(c1); }};
-		List<Client> newClients2 = new ArrayList<>(clients2) {{add(index, c1); }};
+	/**
+	 * Intra scan method : get a neighbor solution
+	 * @param solution
+	 * @return neighbor
+	 */
+	@Override
+	public Neighbor intra(Solution solution, RandomGenerator random, int v) {
+		Vehicle vehicle = solution.getVehicles().get(v);
+		int position1 = getRandomPosition(random, vehicle);
+		int position2 = getRandomPosition(random, vehicle, position1);
+		return neighbor(solution, v, -1, position1, position2, 0, 0);
+	}
 
-		Vehicle newV1 = new Vehicle(v1.getDepot(), newClients1, solution.getData().getMaxQuantity());
-		Vehicle newV2 = new Vehicle(v2.getDepot(), newClients2, solution.getData().getMaxQuantity());
-		if(newV1.isValid() && newV2.isValid())
-			return new Neighbor(
-					this,
-					List.of(v1, v2),
-					List.of(newV1, newV2),
-					List.of(c1),
-					List.of(clients1.indexOf(c1), index),
-					getNewCost(solution, v1, newV1, v2, newV2)
-			);
-		return null;
+	/**
+	 * Granular scan method : relocate the client just before or just after its candidate
+	 * @param solution
+	 * @return neighbor
+	 */
+	@Override
+	protected Neighbor granular(Solution solution, RandomGenerator random, int client, int candidate) {
+		Vehicle vehicle1 = solution.getVehicle(client);
+		Vehicle vehicle2 = solution.getVehicle(candidate);
+		int position1 = solution.getPosition(client);
+		int position = solution.getPosition(candidate);
+		boolean after = random.nextBoolean();
+		if(getType() == OperatorType.INTER) {
+			if(vehicle1 == vehicle2)
+				return null;
+			return neighbor(solution, vehicle1.getIndex(), vehicle2.getIndex(), position1, after ? position + 1 : position, 0, 0);
+		}
+		if(vehicle1 != vehicle2)
+			return null;
+		int position2 = position < position1 ? (after ? position + 1 : position) : (after ? position : position - 1);
+		if(position2 == position1)
+			return null;
+		return neighbor(solution, vehicle1.getIndex(), -1, position1, position2, 0, 0);
 	}
 
 	/**
-	 * Intra scan method : get a neighbor solution
+	 * Enumerate method : get the best relocation of a client of v1 (in v2 or in v1 if v2 = -1)
+	 * The insertion cost is never negative (triangle inequality), so the clients whose removal does not beat
+	 * the threshold are skipped, and the insertion positions are walked until the client cannot be reached in time.
 	 * @param solution
 	 * @return neighbor
 	 */
 	@Override
-	public Neighbor intra(Solution solution, Vehicle v) {
-		List<Client> clients = v.getClients();
+	public Neighbor enumerate(Solution solution, int v1, int v2, double threshold, LongConsumer evaluations) {
+		if((v2 < 0) != (getType() == OperatorType.INTRA))
+			return null;
+		Data data = solution.getData();
+		int count = 0;
+		Vehicle vehicle1 = solution.getVehicles().get(v1);
+		Vehicle vehicle2 = v2 < 0 ? vehicle1 : solution.getVehicles().get(v2);
+		int free = vehicle2.getMaxCapacity() - vehicle2.getLoad();
+		int best1 = 0;
+		int best2 = 0;
+		for(int p1 = 1; p1 <= vehicle1.size(); p1++) {
+			int client = vehicle1.getVertex(p1);
+			if(v2 >= 0 && data.getDemand(client) > free)
+				continue;
+			int before = vehicle1.getVertex(p1 - 1);
+			int after = vehicle1.getVertex(p1 + 1);
+			double removal = data.getDistance(before, after) - data.getDistance(before, client) - data.getDistance(client, after);
+			if(removal >= threshold)
+				continue;
+			if(v2 < 0) {
+				for(int p2 = 1; p2 <= vehicle1.size(); p2++) {
+					if(p2 == p1)
+						continue;
+					double delta = intraDelta(data, vehicle1, p1, p2);
+					count++;
+					if(delta < threshold) {
+						threshold = delta;
+						best1 = p1;
+						best2 = p2;
+					}
+				}
+				continue;
+			}
+			for(int p2 = 1; p2 <= vehicle2.size() + 1; p2++) {
+				int previous = vehicle2.getVertex(p2 - 1);
+				if(vehicle2.getDeparture(p2 - 1) + data.getTravelTime(previous, client) > data.getDueTime(client) + Vehicle.EPSILON)
+					break; // the next positions are reached later
+				int next = vehicle2.getVertex(p2);
+				double distance = removal + data.getDistance(previous, client) + data.getDistance(client, next) - data.getDistance(previous, next);
+				if(distance >= threshold)
+					continue;
+				double delta = delta(solution, v1, v2, p1, p2, 0, 0);
+				count++;
+				if(delta < threshold) {
+					threshold = delta;
+					best1 = p1;
+					best2 = p2;
+				}
+			}
+		}
+		evaluations.accept(count);
+		if(best1 == 0)
+			return null;
+		return new Neighbor(this, v1, v2, best1, best2, 0, 0, threshold, solution.getTotalDistance() + threshold);
+	}
 
-		Client c = getRandomClient(clients);
-		int oldIndex = clients.indexOf(c);
-		List<Client> newClients = new ArrayList<>(clients) {{remove(c); }};
-		int index = oldIndex;
-		while(index == oldIndex)
-			index = random.nextInt(clients.size());
-		newClients.add(index, c);
+	/**
+	 * Delta method : get the cost change of a relocation
+	 * @param solution
+	 * @return delta
+	 */
+	@Override
+	protected double delta(Solution solution, int v1, int v2, int p1, int p2, int p3, int p4) {
+		Data data = solution.getData();
+		Vehicle vehicle1 = solution.getVehicles().get(v1);
+		if(v2 < 0)
+			return intraDelta(data, vehicle1, p1, p2);
+		Vehicle vehicle2 = solution.getVehicles().get(v2);
+		double delta1 = splice(data, vehicle1, p1 - 1, null, 0, 0, vehicle1, p1 + 1, vehicle1.getDistance());
+		if(delta1 == INFEASIBLE)
+			return INFEASIBLE;
+		double delta2 = splice(data, vehicle2, p2 - 1, vehicle1, p1, p1, vehicle2, p2, vehicle2.getDistance());
+		if(delta2 == INFEASIBLE)
+			return INFEASIBLE;
+		return delta1 + delta2;
+	}
 
-		Vehicle newV = new Vehicle(v.getDepot(), newClients, solution.getData().getMaxQuantity());
-		if(newV.isValid())
-			return new Neighbor(
-					this,
-					List.of(v),
-					List.of(newV),
-					List.of(c),
-					List.of(oldIndex, index),
-					getNewCost(solution, v, newV, null, null)
-			);
-		return null;
+	/**
+	 * Delta method : get the cost change of a relocation inside a vehicle
+	 * @param data
+	 * @param vehicle
+	 * @param from (position of the client)
+	 * @param to (final position of the client)
+	 * @return delta
+	 */
+	private double intraDelta(Data data, Vehicle vehicle, int from, int to) {
+		int client = vehicle.getVertex(from);
+		int previous;
+		int next;
+		if(to < from) {
+			previous = vehicle.getVertex(to - 1);
+			next = vehicle.getVertex(to);
+			double departure = Vehicle.visit(data, previous, vehicle.getDeparture(to - 1), client);
+			departure = vehicle.visit(client, departure, to, from - 1);
+			if(!vehicle.canReach(vehicle.getVertex(from - 1), departure, from + 1))
+				return INFEASIBLE;
+		} else {
+			previous = vehicle.getVertex(to);
+			next = vehicle.getVertex(to + 1);
+			double departure = vehicle.visit(vehicle.getVertex(from - 1), vehicle.getDeparture(from - 1), from + 1, to);
+			departure = Vehicle.visit(data, previous, departure, client);
+			if(!vehicle.canReach(client, departure, to + 1))
+				return INFEASIBLE;
+		}
+		int before = vehicle.getVertex(from - 1);
+		int after = vehicle.getVertex(from + 1);
+		return data.getDistance(before, after) - data.getDistance(before, client) - data.getDistance(client, after)
+				+ data.getDistance(previous, client) + data.getDistance(client, next) - data.getDistance(previous, next);
+	}
+
+	/**
+	 * Arcs method : get the arcs created by a relocation
+	 * @param solution
+	 * @param neighbor
+	 * @param arcs
+	 * @return number of arcs
+	 */
+	@Override
+	public int getArcs(Solution solution, Neighbor neighbor, int[] arcs) {
+		Vehicle vehicle1 = solution.getVehicles().get(neighbor.getVehicle1());
+		int from = neighbor.getPosition1();
+		int to = neighbor.getPosition2();
+		int client = vehicle1.getVertex(from);
+		Vehicle vehicle2 = vehicle1;
+		if(neighbor.getVehicle2() >= 0) {
+			vehicle2 = solution.getVehicles().get(neighbor.getVehicle2());
+			to--;
+		} else if(to < from)
+			to--;
+		arcs[0] = vehicle1.getVertex(from - 1);
+		arcs[1] = vehicle1.getVertex(from + 1);
+		arcs[2] = vehicle2.getVertex(to);
+		arcs[3] = client;
+		arcs[4] = client;
+		arcs[5] = vehicle2.getVertex(to + 1);
+		return 3;
+	}
+
+	/**
+	 * Apply method : relocate the client
+	 * @param solution
+	 * @param neighbor
+	 */
+	@Override
+	protected void apply(Solution solution, Neighbor neighbor) {
+		Vehicle vehicle1 = solution.getVehicles().get(neighbor.getVehicle1());
+		if(neighbor.getVehicle2() < 0) {
+			vehicle1.move(neighbor.getPosition1(), neighbor.getPosition2());
+			return;
+		}
+		Vehicle vehicle2 = solution.getVehicles().get(neighbor.getVehicle2());
+		int client = vehicle1.getVertex(neighbor.getPosition1());
+		vehicle1.remove(neighbor.getPosition1());
+		vehicle2.insert(neighbor.getPosition2(), client);
 	}
 }
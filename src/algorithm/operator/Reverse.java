@@ -1,13 +1,11 @@
 package algorithm.operator;
 
-import model.Client;
 import model.Neighbor;
 import model.Solution;
 import model.Vehicle;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.random.RandomGenerator;
 
 /**
  * Reverse class : implements the Reverse operator
@@ -28,7 +26,7 @@ public class Reverse extends Operator {
 	 * @return neighbor
 	 */
 	@Override
-	public Neighbor inter(Solution solution, Vehicle v1, Vehicle v2) {
+	public Neighbor inter(Solution solution, RandomGenerator random, int v1, int v2) {
 		return null;
 	}
 
@@ -38,22 +36,62 @@ public class Reverse extends Operator {
 	 * @return neighbor
 	 */
 	@Override
-	public Neighbor intra(Solution solution, Vehicle v) {
-		List<Client> clients = v.getClients();
-		List<Client> newClients = new ArrayList<>(clients);
-
-		Collections.reverse(newClients);
-
-		Vehicle newV = new Vehicle(v.getDepot(), newClients, solution.getData().getMaxQuantity());
-		if(newV.isValid())
-			return new Neighbor(
-					this,
-					List.of(v),
-					List.of(newV),
-					null,
-					null,
-					getNewCost(solution, v, newV, null, null)
-			);
-		return null;
+	public Neighbor intra(Solution solution, RandomGenerator random, int v) {
+		return neighbor(solution, v, -1, 1, solution.getVehicles().get(v).size(), 0, 0);
+	}
+
+	/**
+	 * Enumerate method : get the reversed route of v1 if it beats the threshold
+	 * @param solution
+	 * @return neighbor
+	 */
+	@Override
+	public Neighbor enumerate(Solution solution, int v1, int v2, double threshold, LongConsumer evaluations) {
+		Vehicle vehicle = solution.getVehicles().get(v1);
+		if(v2 >= 0 || vehicle.size() < 2)
+			return null;
+		double delta = delta(solution, v1, -1, 1, vehicle.size(), 0, 0);
+		evaluations.accept(1);
+		if(delta >= threshold)
+			return null;
+		return new Neighbor(this, v1, -1, 1, vehicle.size(), 0, 0, delta, solution.getTotalDistance() + delta);
+	}
+
+	/**
+	 * Delta method : get the cost change of the reversed route
+	 * @param solution
+	 * @return delta
+	 */
+	@Override
+	protected double delta(Solution solution, int v1, int v2, int p1, int p2, int p3, int p4) {
+		Vehicle vehicle = solution.getVehicles().get(v1);
+		return splice(solution.getData(), vehicle, p1 - 1, vehicle, p2, p1, vehicle, p2 + 1, vehicle.getDistance());
+	}
+
+	/**
+	 * Arcs method : get the end arcs of the reversed route
+	 * @param solution
+	 * @param neighbor
+	 * @param arcs
+	 * @return number of arcs
+	 */
+	@Override
+	public int getArcs(Solution solution, Neighbor neighbor, int[] arcs) {
+		Vehicle vehicle = solution.getVehicles().get(neighbor.getVehicle1());
+		arcs[0] = vehicle.getVertex(neighbor.getPosition1() - 1);
+		arcs[1] = vehicle.getVertex(neighbor.getPosition2());
+		arcs[2] = vehicle.getVertex(neighbor.getPosition1());
+		arcs[3] = vehicle.getVertex(neighbor.getPosition2() + 1);
+		return 2;
+	}
+
+	/**
+	 * Apply method : reverse the route
+	 * @param solution
+	 * @param neighbor
+	 */
+	@Override
+	protected void apply(Solution solution, Neighbor neighbor) {
+		solution.getVehicles().get(neighbor.getVehicle1()).reverse(neighbor.getPosition1(), neighbor.getPosition2());
 	}
 }
@@ -1,17 +1,16 @@
 package algorithm.operator;
 
-import model.Client;
+import data.Data;
 import model.Neighbor;
 import model.Solution;
 import model.Vehicle;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Stream;
+import java.util.function.LongConsumer;
+import java.util.random.RandomGenerator;
 
 /**
  * TwoOpt class : implements the TwoOpt operator
+ * (position1..position2 : segment reversed)
  * @author Julian DEGUT
  */
 public class TwoOpt extends Operator {
@@ -29,7 +28,7 @@ public class TwoOpt extends Operator {
 	 * @return neighbor
 	 */
 	@Override
-	public Neighbor inter(Solution solution, Vehicle v1, Vehicle v2) {
+	public Neighbor inter(Solution solution, RandomGenerator random, int v1, int v2) {
 		return null;
 	}
 
@@ -39,60 +38,112 @@ public class TwoOpt extends Operator {
 	 * @return neighbor
 	 */
 	@Override
-	public Neighbor intra(Solution solution, Vehicle v) {
-		List<Client> clients = v.getClients();
-		Client c1 = getRandomClient(clients);
-		while(clients.indexOf(c1) == 1 && clients.size() == 3)
-			c1 = getRandomClient(clients);
-		Client c2 = null;
-		while(c2 == null || isAdjacent(clients, c1, c2))
-			c2 = getRandomClient(clients, c1);
-
-		List<Client> newClients = twoOpt(clients, c1, c2);
-		Vehicle newV = new Vehicle(v.getDepot(), newClients, solution.getData().getMaxQuantity());
-		if(newV.isValid())
-			return new Neighbor(
-					this,
-					List.of(v),
-					List.of(newV),
-					List.of(c1, c2),
-					null,
-					getNewCost(solution, v, newV, null, null)
-			);
-		return null;
+	public Neighbor intra(Solution solution, RandomGenerator random, int v) {
+		Vehicle vehicle = solution.getVehicles().get(v);
+		int position1 = getRandomPosition(random, vehicle);
+		int position2 = getRandomPosition(random, vehicle);
+		while(Math.abs(position1 - position2) < 2) { // adjacent clients
+			position1 = getRandomPosition(random, vehicle);
+			position2 = getRandomPosition(random, vehicle);
+		}
+		return neighbor(solution, v, -1, Math.min(position1, position2), Math.max(position1, position2), 0, 0);
 	}
 
 	/**
-	 * Check if two clients are adjacent
-	 * @param clients
-	 * @param client1
-	 * @param client2
-	 * @return true if they are adjacent, false otherwise
+	 * Granular scan method : reverse the segment between the client and its candidate so that they become adjacent
+	 * @param solution
+	 * @return neighbor
 	 */
-	private boolean isAdjacent(List<Client> clients, Client client1, Client client2) {
-		return Math.abs(clients.indexOf(client1) - clients.indexOf(client2)) == 1;
+	@Override
+	protected Neighbor granular(Solution solution, RandomGenerator random, int client, int candidate) {
+		Vehicle vehicle = solution.getVehicle(client);
+		if(vehicle != solution.getVehicle(candidate))
+			return null;
+		int position = solution.getPosition(client);
+		int other = solution.getPosition(candidate);
+		int position1 = other < position ? other + 1 : position; // arc (candidate, client) or (client, candidate)
+		int position2 = other < position ? position : other - 1;
+		if(position2 - position1 < 2)
+			return null;
+		return neighbor(solution, vehicle.getIndex(), -1, position1, position2, 0, 0);
 	}
 
 	/**
-	 * Apply 2-Opt
-	 * @param clients
-	 * @param client1
-	 * @param client2
-	 * @return new list
+	 * Enumerate method : get the best reversed segment of v1
+	 * The segments not beating the threshold on their distance are skipped before checking the time windows.
+	 * @param solution
+	 * @return neighbor
 	 */
-	private List<Client> twoOpt(List<Client> clients, Client client1, Client client2) {
-		int index1 = clients.indexOf(client1);
-		int index2 = clients.indexOf(client2);
-		if (index1 > index2) {
-			index1 = clients.indexOf(client2);
-			index2 = clients.indexOf(client1);
+	@Override
+	public Neighbor enumerate(Solution solution, int v1, int v2, double threshold, LongConsumer evaluations) {
+		if(v2 >= 0)
+			return null;
+		Data data = solution.getData();
+		int count = 0;
+		Vehicle vehicle = solution.getVehicles().get(v1);
+		int best1 = 0;
+		int best2 = 0;
+		for(int p1 = 1; p1 + 2 <= vehicle.size(); p1++) {
+			int before = vehicle.getVertex(p1 - 1);
+			int first = vehicle.getVertex(p1);
+			double removed = data.getDistance(before, first);
+			for(int p2 = p1 + 2; p2 <= vehicle.size(); p2++) {
+				int last = vehicle.getVertex(p2);
+				int after = vehicle.getVertex(p2 + 1);
+				double distance = data.getDistance(before, last) + data.getDistance(first, after) - removed - data.getDistance(last, after);
+				if(distance >= threshold)
+					continue;
+				double delta = delta(solution, v1, -1, p1, p2, 0, 0);
+				count++;
+				if(delta < threshold) {
+					threshold = delta;
+					best1 = p1;
+					best2 = p2;
+				}
+			}
 		}
+		evaluations.accept(count);
+		if(best1 == 0)
+			return null;
+		return new Neighbor(this, v1, -1, best1, best2, 0, 0, threshold, solution.getTotalDistance() + threshold);
+	}
+
+	/**
+	 * Delta method : get the cost change of the reversed segment
+	 * @param solution
+	 * @return delta
+	 */
+	@Override
+	protected double delta(Solution solution, int v1, int v2, int p1, int p2, int p3, int p4) {
+		Vehicle vehicle = solution.getVehicles().get(v1);
+		return splice(solution.getData(), vehicle, p1 - 1, vehicle, p2, p1, vehicle, p2 + 1, vehicle.getDistance());
+	}
 
-		List<Client> first = new ArrayList<>(clients.subList(0, index1));
-		List<Client> reversed = new ArrayList<>(clients.subList(index1, index2 + 1));
-		List<Client> last = new ArrayList<>(clients.subList(index2 + 1, clients.size()));
-		Collections.reverse(reversed);
-		return Stream.concat(Stream.concat(first.stream(), reversed.stream()), last.stream()).toList();
+	/**
+	 * Arcs method : get the end arcs of the reversed segment
+	 * @param solution
+	 * @param neighbor
+	 * @param arcs
+	 * @return number of arcs
+	 */
+	@Override
+	public int getArcs(Solution solution, Neighbor neighbor, int[] arcs) {
+		Vehicle vehicle = solution.getVehicles().get(neighbor.getVehicle1());
+		arcs[0] = vehicle.getVertex(neighbor.getPosition1() - 1);
+		arcs[1] = vehicle.getVertex(neighbor.getPosition2());
+		arcs[2] = vehicle.getVertex(neighbor.getPosition1());
+		arcs[3] = vehicle.getVertex(neighbor.getPosition2() + 1);
+		return 2;
+	}
+
+	/**
+	 * Apply method : reverse the segment
+	 * @param solution
+	 * @param neighbor
+	 */
+	@Override
+	protected void apply(Solution solution, Neighbor neighbor) {
+		solution.getVehicles().get(neighbor.getVehicle1()).reverse(neighbor.getPosition1(), neighbor.getPosition2());
 	}
 
 }
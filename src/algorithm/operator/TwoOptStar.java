@@ -0,0 +1,161 @@
+package algorithm.operator;
+
+import data.Data;
+import model.Neighbor;
+import model.Solution;
+import model.Vehicle;
+
+import java.util.function.LongConsumer;
+import java.util.random.RandomGenerator;
+
+/**
+ * TwoOptStar class : implements the 2-opt* operator (exchange of the tails of two vehicles)
+ * (position1 : last position kept in the first vehicle, position3 : last position kept in the second vehicle)
+ * Both new routes are a prefix followed by a suffix, so a move is evaluated in O(1) with the forward & backward
+ * data of the vehicles.
+ * @author Julian DEGUT
+ */
+public class TwoOptStar extends Operator {
+
+	/**
+	 * Constructor
+	 */
+	public TwoOptStar() {
+		super(OperatorType.INTER, 1);
+	}
+
+	/**
+	 * Inter scan method : get a neighbor solution
+	 * @param solution
+	 * @return neighbor
+	 */
+	@Override
+	public Neighbor inter(Solution solution, RandomGenerator random, int v1, int v2) {
+		int position1 = random.nextInt(solution.getVehicles().get(v1).size() + 1);
+		int position3 = random.nextInt(solution.getVehicles().get(v2).size() + 1);
+		return neighbor(solution, v1, v2, position1, 0, position3, 0);
+	}
+
+	/**
+	 * Intra scan method : get a neighbor solution
+	 * @param solution
+	 * @return neighbor
+	 */
+	@Override
+	public Neighbor intra(Solution solution, RandomGenerator random, int v) {
+		return null;
+	}
+
+	/**
+	 * Granular scan method : cut after the client and before its candidate, the client is followed by the candidate
+	 * @param solution
+	 * @return neighbor
+	 */
+	@Override
+	protected Neighbor granular(Solution solution, RandomGenerator random, int client, int candidate) {
+		Vehicle vehicle1 = solution.getVehicle(client);
+		Vehicle vehicle2 = solution.getVehicle(candidate);
+		if(vehicle1 == vehicle2)
+			return null;
+		return neighbor(solution, vehicle1.getIndex(), vehicle2.getIndex(), solution.getPosition(client), 0, solution.getPosition(candidate) - 1, 0);
+	}
+
+	/**
+	 * Enumerate method : get the best exchange of the tails of v1 and v2
+	 * The pairs of vehicles are symmetric, only v1 < v2 is walked. The cuts exceeding the capacities
+	 * or not beating the threshold on their distance are skipped before checking the time windows.
+	 * @param solution
+	 * @return neighbor
+	 */
+	@Override
+	public Neighbor enumerate(Solution solution, int v1, int v2, double threshold, LongConsumer evaluations) {
+		if(v2 < v1)
+			return null;
+		Data data = solution.getData();
+		int count = 0;
+		Vehicle vehicle1 = solution.getVehicles().get(v1);
+		Vehicle vehicle2 = solution.getVehicles().get(v2);
+		int best1 = -1;
+		int best3 = -1;
+		for(int p1 = 0; p1 <= vehicle1.size(); p1++) {
+			int last1 = vehicle1.getVertex(p1);
+			int next1 = vehicle1.getVertex(p1 + 1);
+			double removed1 = data.getDistance(last1, next1);
+			for(int p3 = 0; p3 <= vehicle2.size(); p3++) {
+				if(vehicle1.getLoad(p1) + vehicle2.getLoad() - vehicle2.getLoad(p3) > vehicle1.getMaxCapacity()
+						|| vehicle2.getLoad(p3) + vehicle1.getLoad() - vehicle1.getLoad(p1) > vehicle2.getMaxCapacity())
+					continue;
+				int last2 = vehicle2.getVertex(p3);
+				int next2 = vehicle2.getVertex(p3 + 1);
+				double distance = data.getDistance(last1, next2) + data.getDistance(last2, next1) - removed1 - data.getDistance(last2, next2);
+				if(distance >= threshold)
+					continue;
+				double delta = delta(solution, v1, v2, p1, 0, p3, 0);
+				count++;
+				if(delta < threshold) {
+					threshold = delta;
+					best1 = p1;
+					best3 = p3;
+				}
+			}
+		}
+		evaluations.accept(count);
+		if(best1 < 0)
+			return null;
+		return new Neighbor(this, v1, v2, best1, 0, best3, 0, threshold, solution.getTotalDistance() + threshold);
+	}
+
+	/**
+	 * Delta method : get the cost change of a tails exchange
+	 * @param solution
+	 * @return delta
+	 */
+	@Override
+	protected double delta(Solution solution, int v1, int v2, int p1, int p2, int p3, int p4) {
+		Data data = solution.getData();
+		Vehicle vehicle1 = solution.getVehicles().get(v1);
+		Vehicle vehicle2 = solution.getVehicles().get(v2);
+		if((p1 == 0 && p3 == 0) || (p1 == vehicle1.size() && p3 == vehicle2.size()))
+			return INFEASIBLE; // the vehicles are only swapped
+		double delta1 = splice(data, vehicle1, p1, null, 0, 0, vehicle2, p3 + 1, vehicle1.getDistance());
+		if(delta1 == INFEASIBLE)
+			return INFEASIBLE;
+		double delta2 = splice(data, vehicle2, p3, null, 0, 0, vehicle1, p1 + 1, vehicle2.getDistance());
+		if(delta2 == INFEASIBLE)
+			return INFEASIBLE;
+		return delta1 + delta2;
+	}
+
+	/**
+	 * Arcs method : get the arcs created by a tails exchange
+	 * @param solution
+	 * @param neighbor
+	 * @param arcs
+	 * @return number of arcs
+	 */
+	@Override
+	public int getArcs(Solution solution, Neighbor neighbor, int[] arcs) {
+		Vehicle vehicle1 = solution.getVehicles().get(neighbor.getVehicle1());
+		Vehicle vehicle2 = solution.getVehicles().get(neighbor.getVehicle2());
+		arcs[0] = vehicle1.getVertex(neighbor.getPosition1());
+		arcs[1] = vehicle2.getVertex(neighbor.getPosition3() + 1);
+		arcs[2] = vehicle2.getVertex(neighbor.getPosition3());
+		arcs[3] = vehicle1.getVertex(neighbor.getPosition1() + 1);
+		return 2;
+	}
+
+	/**
+	 * Apply method : exchange the tails
+	 * @param solution
+	 * @param neighbor
+	 */
+	@Override
+	protected void apply(Solution solution, Neighbor neighbor) {
+		Vehicle vehicle1 = solution.getVehicles().get(neighbor.getVehicle1());
+		Vehicle vehicle2 = solution.getVehicles().get(neighbor.getVehicle2());
+		int[] tail1 = vehicle1.toArray(neighbor.getPosition1() + 1, vehicle1.size());
+		int[] tail2 = vehicle2.toArray(neighbor.getPosition3() + 1, vehicle2.size());
+		vehicle1.replace(neighbor.getPosition1() + 1, vehicle1.size(), tail2, 0, tail2.length);
+		vehicle2.replace(neighbor.getPosition3() + 1, vehicle2.size(), tail1, 0, tail1.length);
+	}
+}
@@ -2,9 +2,17 @@ package data;
 
 import model.Client;
 import model.Depot;
+import model.Vertex;
 
-import java.io.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.file.NoSuchFileException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 
 /**
@@ -13,6 +21,10 @@ import java.util.List;
  */
 public class Data {
 
+	/**
+	 * Default number of nearest neighbors kept in the candidate list of a client
+	 */
+	public static final int DEFAULT_CANDIDATES = 20;
 	protected String name;
 	protected String comment;
 	protected String type;
@@ -22,7 +34,19 @@ public class Data {
 	protected int maxQuantity;
 	protected Depot depot;
 	protected final List<Client> clients;
+	protected final List<Vertex> vertices;
+	protected int nbVertices;
+	protected double[] distances;
+	protected DoubleBuffer mappedDistances;
+	protected int[] readyTimes;
+	protected int[] dueTimes;
+	protected int[] serviceTimes;
+	protected int[] demands;
+	protected int[] candidatesStart;
+	protected int[] candidates;
 	protected final File file;
+	private final boolean cache;
+	private String hash;
 
 	/**
 	 * Default constructor
@@ -37,7 +61,17 @@ public class Data {
 		this.maxQuantity = -1;
 		this.depot = null;
 		this.clients = new ArrayList<>();
+		this.vertices = new ArrayList<>();
+		this.nbVertices = 0;
+		this.distances = new double[0];
+		this.readyTimes = new int[0];
+		this.dueTimes = new int[0];
+		this.serviceTimes = new int[0];
+		this.demands = new int[0];
+		this.candidatesStart = new int[1];
+		this.candidates = new int[0];
 		this.file = null;
+		this.cache = false;
 	}
 
 	/**
@@ -45,6 +79,15 @@ public class Data {
 	 * @param path
 	 */
 	public Data(String path) {
+		this(path, false);
+	}
+
+	/**
+	 * Constructor
+	 * @param path
+	 * @param cache (true to load the preprocessed instance from its binary cache, written at the first load)
+	 */
+	public Data(String path, boolean cache) {
 		this.name = "unnamed";
 		this.comment = "";
 		this.type = "vrptw";
@@ -54,7 +97,17 @@ public class Data {
 		this.maxQuantity = -1;
 		this.depot = null;
 		this.clients = new ArrayList<>();
+		this.vertices = new ArrayList<>();
+		this.nbVertices = 0;
+		this.distances = new double[0];
+		this.readyTimes = new int[0];
+		this.dueTimes = new int[0];
+		this.serviceTimes = new int[0];
+		this.demands = new int[0];
+		this.candidatesStart = new int[1];
+		this.candidates = new int[0];
 		this.file = new File(path);
+		this.cache = cache;
 
 		if(build()) {
 			System.out.println("Data " + name + " loaded");
@@ -64,125 +117,116 @@ public class Data {
 	}
 
 	/**
-	 * Build the data from the file
+	 * Build the data from the file (single pass parser, see InstanceParser for the accepted formats)
+	 * or from its binary cache (see InstanceCache)
 	 * @return true if the data is correctly loaded, false otherwise
 	 */
 	public boolean build() {
-		StringBuilder sb = new StringBuilder();
-		try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-			String line;
-			while ((line = reader.readLine()) != null) {
-				sb.append(line).append("\n");
-			}
-		} catch (FileNotFoundException e) {
+		hash = null;
+		if(cache && InstanceCache.read(file, this))
+			return true;
+		InstanceParser parser;
+		try {
+			parser = InstanceParser.parse(file);
+		} catch (NoSuchFileException e) {
 			System.err.println("File not found: " + file.getAbsolutePath());
 			return false;
 		} catch (IOException e) {
-			System.err.println("Error reading file: " + file.getAbsolutePath());
-			return false;
-		}
-
-		String[] lines = sb.toString().split("\\n");
-		parseHeader(lines);
-		if(!createDepot(lines)) {
-			System.err.println("Error creating depots");
-			return false;
-		}
-		if(!createClients(lines)) {
-			System.err.println("Error creating clients");
+			System.err.println("Error reading file: " + file.getAbsolutePath() + " (" + e.getMessage() + ")");
 			return false;
 		}
+		this.name = parser.name;
+		this.comment = parser.comment;
+		this.type = parser.type;
+		this.coordinates = parser.coordinates;
+		this.nbDepots = parser.nbDepots;
+		this.nbClients = parser.nbClients;
+		this.maxQuantity = parser.maxQuantity;
+		buildVertices(parser);
+		buildCandidates(DEFAULT_CANDIDATES, true);
+		if(cache)
+			InstanceCache.write(file, this);
 		return true;
 	}
 
 	/**
-	 * Parse the header of the file
-	 * @param lines
+	 * Build the vertices and the distance matrix (flat arrays indexed by the dense index of the vertices)
+	 * @param parser
 	 */
-	private void parseHeader(String[] lines) {
-		for(String line : lines) {
-			String[] splitLine = line.split(": ");
-			if(splitLine.length == 2) {
-				switch (splitLine[0]) {
-					case "NAME" -> this.name = splitLine[1].trim();
-					case "COMMENT" -> this.comment = splitLine[1].trim();
-					case "TYPE" -> this.type = splitLine[1].trim();
-					case "COORDINATES" -> this.coordinates = splitLine[1].trim();
-					case "NB_DEPOTS" -> this.nbDepots = Integer.parseInt(splitLine[1].trim());
-					case "NB_CLIENTS" -> this.nbClients = Integer.parseInt(splitLine[1].trim());
-					case "MAX_QUANTITY" -> this.maxQuantity = Integer.parseInt(splitLine[1].trim());
-				}
+	private void buildVertices(InstanceParser parser) {
+		nbVertices = parser.nbVertices;
+		readyTimes = parser.readyTimes;
+		dueTimes = parser.dueTimes;
+		serviceTimes = parser.serviceTimes;
+		demands = parser.demands;
+		serviceTimes[0] = 0;
+		demands[0] = 0;
+		depot = new Depot(0, parser.x[0], parser.y[0], readyTimes[0], dueTimes[0]);
+		clients.clear();
+		vertices.clear();
+		vertices.add(depot);
+		for (int i = 1; i < nbVertices; i++) {
+			Client client = new Client(i, parser.x[i], parser.y[i], readyTimes[i], dueTimes[i], demands[i], serviceTimes[i]);
+			clients.add(client);
+			vertices.add(client);
+		}
+		distances = new double[nbVertices * nbVertices];
+		mappedDistances = null;
+		for (int i = 0; i < nbVertices; i++) {
+			for (int j = i + 1; j < nbVertices; j++) {
+				double dx = parser.x[i] - parser.x[j];
+				double dy = parser.y[i] - parser.y[j];
+				double distance = Math.sqrt(dx * dx + dy * dy);
+				distances[i * nbVertices + j] = distance;
+				distances[j * nbVertices + i] = distance;
 			}
 		}
 	}
 
 	/**
-	 * Create the depots from the file
-	 * @param lines
-	 * @return true if the depots are correctly created, false otherwise
+	 * Build the candidate lists : the k nearest clients of each client, sorted by distance
+	 * The lists are stored one after the other in a flat array (the list of a client starts at candidatesStart[client]).
+	 * @param k (number of candidates per client)
+	 * @param timeWindows (true to keep only the clients that can be visited just before or just after the client)
 	 */
-	private boolean createDepot(String[] lines) {
-		for (int i = 0; i < lines.length; i++) {
-			String line = lines[i];
-			if (line.startsWith("DATA_DEPOTS")) {
-				String data;
-				for (int j = i + 1; j < lines.length; j++) {
-					data = lines[j];
-					if (data.isEmpty()) {
-						break;
-					}
-					try {
-						String[] split = data.split(" ");
-						if (split.length == 5) {
-							depot = new Depot(
-									Integer.parseInt(split[1]),
-									Integer.parseInt(split[2]),
-									Integer.parseInt(split[3]),
-									Integer.parseInt(split[4]));
-						}
-					} catch (NumberFormatException e) {
-						System.err.println("Error parsing depot data: " + data);
-					}
+	public void buildCandidates(int k, boolean timeWindows) {
+		k = Math.max(0, Math.min(k, nbVertices - 2));
+		int[] starts = new int[nbVertices + 1];
+		int[] lists = new int[(nbVertices - 1) * k];
+		int size = 0;
+		for (int client = 1; client < nbVertices; client++) {
+			starts[client] = size;
+			int count = 0;
+			for (int other = 1; other < nbVertices; other++) {
+				if (other == client || (timeWindows && !isCompatible(client, other)))
+					continue;
+				double distance = getDistance(client, other);
+				if (count == k && distance >= getDistance(client, lists[size + k - 1]))
+					continue;
+				int i = count < k ? count++ : k - 1;
+				while (i > 0 && distance < getDistance(client, lists[size + i - 1])) { // insertion in the sorted list
+					lists[size + i] = lists[size + i - 1];
+					i--;
 				}
-				break;
+				lists[size + i] = other;
 			}
+			size += count;
 		}
-		return depot != null;
+		starts[0] = 0;
+		starts[nbVertices] = size;
+		candidatesStart = starts;
+		candidates = lists;
 	}
 
 	/**
-	 * Create the clients from the file
-	 * @param lines
-	 * @return true if the clients are correctly created, false otherwise
+	 * Test if two clients can be visited one just after the other (in any order)
+	 * @param client1 (dense index)
+	 * @param client2 (dense index)
+	 * @return true if the clients are compatible
 	 */
-	private boolean createClients(String[] lines) {
-		for (int i = 0; i < lines.length; i++) {
-			String line = lines[i];
-			if (line.startsWith("DATA_CLIENTS")) {
-				String data;
-				for (int j = i + 1; j < lines.length; j++) {
-					data = lines[j];
-					if (data.isEmpty()) {
-						break;
-					}
-					try {
-						String[] split = data.split(" ");
-						clients.add(new Client(
-								Integer.parseInt(split[1]),
-								Integer.parseInt(split[2]),
-								Integer.parseInt(split[3]),
-								Integer.parseInt(split[4]),
-								Integer.parseInt(split[5]),
-								Integer.parseInt(split[6])
-						));
-					} catch (NumberFormatException e) {
-						System.err.println("Error parsing client data: " + data);
-					}
-				}
-				break;
-			}
-		}
-		return clients.size() == nbClients;
+	private boolean isCompatible(int client1, int client2) {
+		return readyTimes[client1] + serviceTimes[client1] + getTravelTime(client1, client2) <= dueTimes[client2]
+				|| readyTimes[client2] + serviceTimes[client2] + getTravelTime(client2, client1) <= dueTimes[client1];
 	}
 
 	/**
@@ -256,4 +300,157 @@ public class Data {
 	public List<Client> getClients() {
 		return clients;
 	}
+
+	/**
+	 * Get the vertices (depot at index 0, then the clients)
+	 * @return vertices
+	 */
+	public List<Vertex> getVertices() {
+		return vertices;
+	}
+
+	/**
+	 * Get the number of vertices (depot included)
+	 * @return nbVertices
+	 */
+	public int getNbVertices() {
+		return nbVertices;
+	}
+
+	/**
+	 * Get the distance between two vertices
+	 * @param from (dense index)
+	 * @param to (dense index)
+	 * @return distance
+	 */
+	public double getDistance(int from, int to) {
+		return getDistance(from * nbVertices + to);
+	}
+
+	/**
+	 * Get the distance between two vertices
+	 * @param from
+	 * @param to
+	 * @return distance
+	 */
+	public double getDistance(Vertex from, Vertex to) {
+		return getDistance(from.getIndex() * nbVertices + to.getIndex());
+	}
+
+	/**
+	 * Get a cell of the distance matrix (in the heap, or in the mapped cache file)
+	 * @param index (from * nbVertices + to)
+	 * @return distance
+	 */
+	private double getDistance(int index) {
+		return distances != null ? distances[index] : mappedDistances.get(index);
+	}
+
+	/**
+	 * Get the travel time between two vertices (equal to the distance in this model)
+	 * @param from (dense index)
+	 * @param to (dense index)
+	 * @return travel time
+	 */
+	public double getTravelTime(int from, int to) {
+		return getDistance(from * nbVertices + to);
+	}
+
+	/**
+	 * Get the ready time of a vertex
+	 * @param vertex (dense index)
+	 * @return readyTime
+	 */
+	public int getReadyTime(int vertex) {
+		return readyTimes[vertex];
+	}
+
+	/**
+	 * Get the due time of a vertex
+	 * @param vertex (dense index)
+	 * @return dueTime
+	 */
+	public int getDueTime(int vertex) {
+		return dueTimes[vertex];
+	}
+
+	/**
+	 * Get the service time of a vertex (0 for the depot)
+	 * @param vertex (dense index)
+	 * @return serviceTime
+	 */
+	public int getServiceTime(int vertex) {
+		return serviceTimes[vertex];
+	}
+
+	/**
+	 * Get the demand of a vertex (0 for the depot)
+	 * @param vertex (dense index)
+	 * @return demand
+	 */
+	public int getDemand(int vertex) {
+		return demands[vertex];
+	}
+
+	/**
+	 * Get the number of candidates of a client
+	 * @param client (dense index)
+	 * @return nbCandidates
+	 */
+	public int getNbCandidates(int client) {
+		return client == 0 ? 0 : candidatesStart[client + 1] - candidatesStart[client];
+	}
+
+	/**
+	 * Get a candidate of a client
+	 * @param client (dense index)
+	 * @param rank (0 for the nearest candidate)
+	 * @return candidate (dense index)
+	 */
+	public int getCandidate(int client, int rank) {
+		return candidates[candidatesStart[client] + rank];
+	}
+
+	/**
+	 * Test if an arc is in the candidate lists (one of its clients is a candidate of the other one)
+	 * @param from (dense index)
+	 * @param to (dense index)
+	 * @return true if the arc is a candidate arc
+	 */
+	public boolean isCandidate(int from, int to) {
+		if (from == 0 || to == 0)
+			return false;
+		for (int i = candidatesStart[from]; i < candidatesStart[from + 1]; i++) {
+			if (candidates[i] == to)
+				return true;
+		}
+		for (int i = candidatesStart[to]; i < candidatesStart[to + 1]; i++) {
+			if (candidates[i] == from)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Get the content hash of the instance (SHA-256 of the capacity & of the attributes of the vertices,
+	 * so the same instance has the same hash whatever its file name, format or header)
+	 * @return hash (hexadecimal)
+	 */
+	public String getHash() {
+		if (hash == null) {
+			ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * (2 + 6 * nbVertices));
+			buffer.putInt(nbVertices).putInt(maxQuantity);
+			for (Vertex vertex : vertices) {
+				int i = vertex.getIndex();
+				buffer.putInt(vertex.getX()).putInt(vertex.getY()).putInt(readyTimes[i]).putInt(dueTimes[i])
+						.putInt(demands[i]).putInt(serviceTimes[i]);
+			}
+			try {
+				hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(buffer.array()));
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e); // SHA-256 is required on every platform
+			}
+		}
+		return hash;
+	}
 }
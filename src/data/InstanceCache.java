@@ -0,0 +1,264 @@
+package data;
+
+import model.Client;
+import model.Depot;
+import model.Vertex;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * InstanceCache class : binary file of a preprocessed instance, written once next to the source file
+ * & memory-mapped read-only by the next loads
+ * <p>
+ * Layout (native byte order) : header (magic, version, byte order, checksum & length of the source file, sizes,
+ * number of candidates per client, strings of the header), then the arrays of the vertices (x, y, ready times,
+ * due times, demands, service times), the candidate lists and the distance matrix, aligned on 8 bytes.
+ * The distance matrix is not copied : the data reads it in the mapped file, so the processes loading the same
+ * instance share its pages. The cache is rebuilt when the checksum of the source file changes.
+ * @author Julian DEGUT
+ */
+final class InstanceCache {
+
+	private static final int MAGIC = 0x56525043; // "VRPC"
+	private static final int VERSION = 1;
+	private static final String EXTENSION = ".cache";
+
+	/**
+	 * Constructor (static methods only)
+	 */
+	private InstanceCache() {
+	}
+
+	/**
+	 * Get the cache file of a source file
+	 * @param source
+	 * @return cache file (next to the source file)
+	 */
+	static File getFile(File source) {
+		return new File(source.getPath() + EXTENSION);
+	}
+
+	/**
+	 * Read the cache of a source file into the data
+	 * @param source
+	 * @param data (filled if the cache is valid)
+	 * @return true if the data has been loaded, false if the cache is missing, outdated or unreadable
+	 */
+	static boolean read(File source, Data data) {
+		File file = getFile(source);
+		if(!file.isFile())
+			return false;
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if(channel.size() > Integer.MAX_VALUE)
+				return false;
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.nativeOrder());
+			if(buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != getByteOrder())
+				return false;
+			long checksum = buffer.getLong();
+			long length = buffer.getLong();
+			if(length != Files.size(source.toPath()) || checksum != checksum(source))
+				return false;
+			int nbVertices = buffer.getInt();
+			int nbCandidates = buffer.getInt();
+			if(buffer.getInt() != Data.DEFAULT_CANDIDATES)
+				return false;
+			data.nbDepots = buffer.getInt();
+			data.nbClients = buffer.getInt();
+			data.maxQuantity = buffer.getInt();
+			data.name = getString(buffer);
+			data.comment = getString(buffer);
+			data.type = getString(buffer);
+			data.coordinates = getString(buffer);
+			align(buffer);
+			int[] x = getInts(buffer, nbVertices);
+			int[] y = getInts(buffer, nbVertices);
+			data.nbVertices = nbVertices;
+			data.readyTimes = getInts(buffer, nbVertices);
+			data.dueTimes = getInts(buffer, nbVertices);
+			data.demands = getInts(buffer, nbVertices);
+			data.serviceTimes = getInts(buffer, nbVertices);
+			data.candidatesStart = getInts(buffer, nbVertices + 1);
+			data.candidates = getInts(buffer, nbCandidates);
+			align(buffer);
+			data.distances = null;
+			data.mappedDistances = buffer.slice(buffer.position(), nbVertices * nbVertices * Double.BYTES)
+					.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+			data.depot = new Depot(0, x[0], y[0], data.readyTimes[0], data.dueTimes[0]);
+			data.clients.clear();
+			data.vertices.clear();
+			data.vertices.add(data.depot);
+			for(int i = 1; i < nbVertices; i++) {
+				Client client = new Client(i, x[i], y[i], data.readyTimes[i], data.dueTimes[i], data.demands[i], data.serviceTimes[i]);
+				data.clients.add(client);
+				data.vertices.add(client);
+			}
+			return true;
+		} catch(IOException | RuntimeException e) {
+			System.err.println("Error reading cache: " + file.getAbsolutePath() + " (" + e + ")");
+			return false;
+		}
+	}
+
+	/**
+	 * Write the cache of a source file (in a temporary file renamed at the end, so concurrent readers
+	 * never see a partial cache)
+	 * @param source
+	 * @param data (loaded from the source file, with the default candidate lists)
+	 * @return true if the cache has been written
+	 */
+	static boolean write(File source, Data data) {
+		int nbVertices = data.nbVertices;
+		byte[][] strings = {getBytes(data.name), getBytes(data.comment), getBytes(data.type), getBytes(data.coordinates)};
+		long size = 9 * Integer.BYTES + 2 * Long.BYTES;
+		for(byte[] string : strings)
+			size += Integer.BYTES + string.length;
+		size = aligned(size) + (long) Integer.BYTES * (6 * nbVertices + nbVertices + 1 + data.candidates.length);
+		size = aligned(size) + (long) Double.BYTES * nbVertices * nbVertices;
+		if(size > Integer.MAX_VALUE)
+			return false; // too large to be mapped at once
+		File file = getFile(source);
+		Path temporary = null;
+		try {
+			temporary = Files.createTempFile(file.getAbsoluteFile().getParentFile().toPath(), file.getName(), ".tmp");
+			try(FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+				buffer.order(ByteOrder.nativeOrder());
+				buffer.putInt(MAGIC).putInt(VERSION).putInt(getByteOrder());
+				buffer.putLong(checksum(source)).putLong(Files.size(source.toPath()));
+				buffer.putInt(nbVertices).putInt(data.candidates.length).putInt(Data.DEFAULT_CANDIDATES);
+				buffer.putInt(data.nbDepots).putInt(data.nbClients).putInt(data.maxQuantity);
+				for(byte[] string : strings)
+					buffer.putInt(string.length).put(string);
+				align(buffer);
+				for(Vertex vertex : data.vertices)
+					buffer.putInt(vertex.getX());
+				for(Vertex vertex : data.vertices)
+					buffer.putInt(vertex.getY());
+				for(int[] array : new int[][] {data.readyTimes, data.dueTimes, data.demands, data.serviceTimes, data.candidatesStart, data.candidates})
+					putInts(buffer, array);
+				align(buffer);
+				buffer.asDoubleBuffer().put(data.distances);
+				buffer.force();
+			}
+			try {
+				Files.move(temporary, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch(AtomicMoveNotSupportedException e) {
+				Files.move(temporary, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			return true;
+		} catch(IOException e) {
+			System.err.println("Error writing cache: " + file.getAbsolutePath() + " (" + e.getMessage() + ")");
+			try {
+				if(temporary != null)
+					Files.deleteIfExists(temporary);
+			} catch(IOException ignored) {
+				// nothing more to clean
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Get the checksum of a file (CRC32 of its content)
+	 * @param file
+	 * @return checksum
+	 * @throws IOException if the file cannot be read
+	 */
+	private static long checksum(File file) throws IOException {
+		CRC32 crc = new CRC32();
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			crc.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Get a code of the native byte order (a cache written on another architecture is rebuilt)
+	 * @return code
+	 */
+	private static int getByteOrder() {
+		return ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN ? 1 : 0;
+	}
+
+	/**
+	 * Read integers into a heap array
+	 * @param buffer
+	 * @param length
+	 * @return array
+	 */
+	private static int[] getInts(ByteBuffer buffer, int length) {
+		int[] array = new int[length];
+		buffer.asIntBuffer().get(array);
+		skipInts(buffer, length);
+		return array;
+	}
+
+	/**
+	 * Write integers from a heap array
+	 * @param buffer
+	 * @param array
+	 */
+	private static void putInts(ByteBuffer buffer, int[] array) {
+		buffer.asIntBuffer().put(array);
+		skipInts(buffer, array.length);
+	}
+
+	/**
+	 * Move the position of a buffer after integers
+	 * @param buffer
+	 * @param length (number of integers)
+	 */
+	private static void skipInts(ByteBuffer buffer, int length) {
+		buffer.position(buffer.position() + length * Integer.BYTES);
+	}
+
+	/**
+	 * Read a string (length & UTF-8 bytes)
+	 * @param buffer
+	 * @return string
+	 */
+	private static String getString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Get the UTF-8 bytes of a string
+	 * @param string
+	 * @return bytes
+	 */
+	private static byte[] getBytes(String string) {
+		return string.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Move the position of a buffer to the next multiple of 8
+	 * @param buffer
+	 */
+	private static void align(ByteBuffer buffer) {
+		buffer.position((int) aligned(buffer.position()));
+	}
+
+	/**
+	 * Round a size up to the next multiple of 8
+	 * @param size
+	 * @return aligned size
+	 */
+	private static long aligned(long size) {
+		return (size + 7) & ~7L;
+	}
+}
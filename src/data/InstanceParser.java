@@ -0,0 +1,352 @@
+package data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * InstanceParser class : single pass parser of an instance file into primitive arrays (index 0 for the depot)
+ * <p>
+ * The file is memory-mapped and tokenized byte by byte, only the header values are turned into strings. Two formats
+ * are read :
+ * - the format of the project (KEY: value header, then DATA_DEPOTS & DATA_CLIENTS sections, one vertex per line)
+ * - the Solomon & Gehring-Homberger format (name, VEHICLE section with the number of vehicles & the capacity,
+ * CUSTOMER section with one line per vertex : number x y demand readyTime dueTime serviceTime, the depot first)
+ * @author Julian DEGUT
+ */
+final class InstanceParser {
+
+	private static final int INITIAL_CAPACITY = 128;
+	private final MappedByteBuffer buffer;
+	private int line;
+	String name = "unnamed";
+	String comment = "";
+	String type = "vrptw";
+	String coordinates = "cartesian";
+	int nbDepots = -1;
+	int nbClients = -1;
+	int maxQuantity = -1;
+	int nbVertices;
+	int[] x = new int[INITIAL_CAPACITY];
+	int[] y = new int[INITIAL_CAPACITY];
+	int[] readyTimes = new int[INITIAL_CAPACITY];
+	int[] dueTimes = new int[INITIAL_CAPACITY];
+	int[] demands = new int[INITIAL_CAPACITY];
+	int[] serviceTimes = new int[INITIAL_CAPACITY];
+
+	/**
+	 * Constructor
+	 * @param buffer (content of the file)
+	 */
+	private InstanceParser(MappedByteBuffer buffer) {
+		this.buffer = buffer;
+		this.line = 1;
+		this.nbVertices = 1; // the depot is stored at index 0
+	}
+
+	/**
+	 * Parse an instance file
+	 * @param file
+	 * @return parser holding the data of the file (the arrays are trimmed to the number of vertices)
+	 * @throws IOException if the file cannot be read or is malformed
+	 */
+	static InstanceParser parse(File file) throws IOException {
+		InstanceParser parser;
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			parser = new InstanceParser(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+		parser.skipBlankLines();
+		if(parser.isSolomon())
+			parser.parseSolomon();
+		else
+			parser.parseProject();
+		parser.trim();
+		return parser;
+	}
+
+	/**
+	 * Test if the file is in the Solomon format (its first line is only a name, without any "KEY:")
+	 * @return true for the Solomon & Gehring-Homberger format
+	 */
+	private boolean isSolomon() {
+		for(int i = buffer.position(); i < buffer.limit(); i++) {
+			byte c = buffer.get(i);
+			if(c == ':')
+				return false;
+			if(c == '\n')
+				return true;
+		}
+		return true;
+	}
+
+	/**
+	 * Parse a file in the format of the project
+	 * @throws IOException if the file is malformed
+	 */
+	private void parseProject() throws IOException {
+		boolean depotFound = false;
+		while(skipBlankLines()) {
+			if(startsWith("DATA_DEPOTS")) {
+				nextLine();
+				while(!isLineEnd()) { // up to the empty line ending the section
+					skipWord();
+					x[0] = readInt();
+					y[0] = readInt();
+					readyTimes[0] = readInt();
+					dueTimes[0] = readInt();
+					depotFound = true;
+					nextLine();
+				}
+			} else if(startsWith("DATA_CLIENTS")) {
+				nextLine();
+				while(!isLineEnd()) {
+					skipWord();
+					int client = addVertex();
+					x[client] = readInt();
+					y[client] = readInt();
+					readyTimes[client] = readInt();
+					dueTimes[client] = readInt();
+					demands[client] = readInt();
+					serviceTimes[client] = readInt();
+					nextLine();
+				}
+			} else {
+				String key = readUntil((byte) ':');
+				if(buffer.hasRemaining() && buffer.get(buffer.position()) == ':') {
+					buffer.get();
+					String value = readUntil((byte) '\n').trim();
+					switch(key.trim()) {
+						case "NAME" -> name = value;
+						case "COMMENT" -> comment = value;
+						case "TYPE" -> type = value;
+						case "COORDINATES" -> coordinates = value;
+						case "NB_DEPOTS" -> nbDepots = parseInt(value);
+						case "NB_CLIENTS" -> nbClients = parseInt(value);
+						case "MAX_QUANTITY" -> maxQuantity = parseInt(value);
+					}
+				}
+				nextLine();
+			}
+		}
+		if(!depotFound)
+			throw new IOException("No depot found");
+		if(nbVertices - 1 != nbClients)
+			throw new IOException(nbClients + " clients announced, " + (nbVertices - 1) + " found");
+	}
+
+	/**
+	 * Parse a file in the Solomon & Gehring-Homberger format (the number of vehicles is not kept)
+	 * @throws IOException if the file is malformed
+	 */
+	private void parseSolomon() throws IOException {
+		name = readUntil((byte) '\n').trim();
+		nextLine();
+		boolean depotFound = false;
+		while(skipBlankLines()) {
+			if(!isDigit(buffer.get(buffer.position()))) { // section or column titles
+				nextLine();
+				continue;
+			}
+			if(maxQuantity < 0) {
+				readInt(); // number of vehicles
+				maxQuantity = readInt();
+			} else {
+				int vertex = depotFound ? addVertex() : 0;
+				readInt(); // number of the customer
+				x[vertex] = readInt();
+				y[vertex] = readInt();
+				demands[vertex] = readInt();
+				readyTimes[vertex] = readInt();
+				dueTimes[vertex] = readInt();
+				serviceTimes[vertex] = readInt();
+				depotFound = true;
+			}
+			nextLine();
+		}
+		if(!depotFound)
+			throw new IOException("No customer found");
+		nbDepots = 1;
+		nbClients = nbVertices - 1;
+	}
+
+	/**
+	 * Add a vertex (the arrays are doubled when full)
+	 * @return index of the vertex
+	 */
+	private int addVertex() {
+		if(nbVertices == x.length) {
+			int capacity = 2 * x.length;
+			x = Arrays.copyOf(x, capacity);
+			y = Arrays.copyOf(y, capacity);
+			readyTimes = Arrays.copyOf(readyTimes, capacity);
+			dueTimes = Arrays.copyOf(dueTimes, capacity);
+			demands = Arrays.copyOf(demands, capacity);
+			serviceTimes = Arrays.copyOf(serviceTimes, capacity);
+		}
+		return nbVertices++;
+	}
+
+	/**
+	 * Trim the arrays to the number of vertices
+	 */
+	private void trim() {
+		x = Arrays.copyOf(x, nbVertices);
+		y = Arrays.copyOf(y, nbVertices);
+		readyTimes = Arrays.copyOf(readyTimes, nbVertices);
+		dueTimes = Arrays.copyOf(dueTimes, nbVertices);
+		demands = Arrays.copyOf(demands, nbVertices);
+		serviceTimes = Arrays.copyOf(serviceTimes, nbVertices);
+	}
+
+	/**
+	 * Skip the blank lines
+	 * @return true if there is a non-blank line left
+	 */
+	private boolean skipBlankLines() {
+		while(true) {
+			skipSpaces();
+			if(!buffer.hasRemaining())
+				return false;
+			if(buffer.get(buffer.position()) != '\n')
+				return true;
+			buffer.get();
+			line++;
+		}
+	}
+
+	/**
+	 * Skip the spaces, tabulations & carriage returns of the current line
+	 */
+	private void skipSpaces() {
+		while(buffer.hasRemaining()) {
+			byte c = buffer.get(buffer.position());
+			if(c != ' ' && c != '\t' && c != '\r')
+				return;
+			buffer.get();
+		}
+	}
+
+	/**
+	 * Test if the current line is empty (or if the file is over)
+	 * @return true if nothing is left on the line
+	 */
+	private boolean isLineEnd() {
+		skipSpaces();
+		return !buffer.hasRemaining() || buffer.get(buffer.position()) == '\n';
+	}
+
+	/**
+	 * Go to the beginning of the next line
+	 */
+	private void nextLine() {
+		while(buffer.hasRemaining()) {
+			if(buffer.get() == '\n') {
+				line++;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Skip a word (the name of a vertex)
+	 */
+	private void skipWord() {
+		skipSpaces();
+		while(buffer.hasRemaining()) {
+			byte c = buffer.get(buffer.position());
+			if(c == ' ' || c == '\t' || c == '\r' || c == '\n')
+				return;
+			buffer.get();
+		}
+	}
+
+	/**
+	 * Test if the current line starts with a keyword
+	 * @param keyword (ASCII)
+	 * @return true if the line starts with the keyword
+	 */
+	private boolean startsWith(String keyword) {
+		int position = buffer.position();
+		if(buffer.limit() - position < keyword.length())
+			return false;
+		for(int i = 0; i < keyword.length(); i++) {
+			if(buffer.get(position + i) != keyword.charAt(i))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Read the bytes up to a delimiter (or the end of the line), the delimiter is not consumed
+	 * @param delimiter
+	 * @return text read
+	 */
+	private String readUntil(byte delimiter) {
+		int start = buffer.position();
+		while(buffer.hasRemaining()) {
+			byte c = buffer.get(buffer.position());
+			if(c == delimiter || c == '\n')
+				break;
+			buffer.get();
+		}
+		byte[] bytes = new byte[buffer.position() - start];
+		buffer.get(start, bytes);
+		return new String(bytes, StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Read an integer of the current line (a decimal value is rounded)
+	 * @return value
+	 * @throws IOException if there is no number
+	 */
+	private int readInt() throws IOException {
+		skipSpaces();
+		boolean negative = false;
+		if(buffer.hasRemaining() && buffer.get(buffer.position()) == '-') {
+			negative = true;
+			buffer.get();
+		}
+		if(!buffer.hasRemaining() || !isDigit(buffer.get(buffer.position())))
+			throw new IOException("Number expected at line " + line);
+		long value = 0;
+		while(buffer.hasRemaining() && isDigit(buffer.get(buffer.position())))
+			value = 10 * value + (buffer.get() - '0');
+		if(buffer.hasRemaining() && buffer.get(buffer.position()) == '.') { // fractional part
+			buffer.get();
+			if(buffer.hasRemaining() && isDigit(buffer.get(buffer.position())) && buffer.get(buffer.position()) >= '5')
+				value++;
+			while(buffer.hasRemaining() && isDigit(buffer.get(buffer.position())))
+				buffer.get();
+		}
+		if(value > Integer.MAX_VALUE)
+			throw new IOException("Number too large at line " + line);
+		return (int) (negative ? -value : value);
+	}
+
+	/**
+	 * Parse an integer of the header
+	 * @param value
+	 * @return integer
+	 * @throws IOException if the value is not an integer
+	 */
+	private int parseInt(String value) throws IOException {
+		try {
+			return Integer.parseInt(value);
+		} catch(NumberFormatException e) {
+			throw new IOException("Integer expected at line " + line + ": " + value);
+		}
+	}
+
+	/**
+	 * Test if a byte is a digit
+	 * @param c
+	 * @return true for 0..9
+	 */
+	private static boolean isDigit(byte c) {
+		return c >= '0' && c <= '9';
+	}
+}
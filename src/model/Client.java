@@ -13,6 +13,7 @@ public class Client extends Vertex {
 
 	/**
 	 * Constructor
+	 * @param index
 	 * @param x
 	 * @param y
 	 * @param readyTime
@@ -20,8 +21,8 @@ public class Client extends Vertex {
 	 * @param demand
 	 * @param serviceTime
 	 */
-	public Client(int x, int y, int readyTime, int dueTime, int demand, int serviceTime) {
-		super(x, y);
+	public Client(int index, int x, int y, int readyTime, int dueTime, int demand, int serviceTime) {
+		super(index, x, y);
 		this.readyTime = readyTime;
 		this.dueTime = dueTime;
 		this.demand = demand;
@@ -11,13 +11,14 @@ public class Depot extends Vertex {
 
 	/**
 	 * Constructor
+	 * @param index
 	 * @param x
 	 * @param y
 	 * @param readyTime
 	 * @param dueTime
 	 */
-	public Depot(int x, int y, int readyTime, int dueTime) {
-		super(x, y);
+	public Depot(int index, int x, int y, int readyTime, int dueTime) {
+		super(index, x, y);
 		this.readyTime = readyTime;
 		this.dueTime = dueTime;
 	}
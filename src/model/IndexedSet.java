@@ -0,0 +1,84 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * IndexedSet class : set of non-negative integers with constant time insertion, removal and access by rank
+ * (used to draw uniformly the vehicles of a solution)
+ * @author Julian DEGUT
+ */
+class IndexedSet {
+
+	private int[] elements;
+	private int[] positions;
+	private int size;
+
+	/**
+	 * Constructor
+	 * @param capacity (initial upper bound of the elements)
+	 */
+	IndexedSet(int capacity) {
+		this.elements = new int[Math.max(capacity, 1)];
+		this.positions = new int[Math.max(capacity, 1)];
+		Arrays.fill(positions, -1);
+		this.size = 0;
+	}
+
+	/**
+	 * Add an element (nothing is done if it is already in the set)
+	 * @param element
+	 */
+	void add(int element) {
+		if(element >= positions.length) {
+			int length = Math.max(element + 1, positions.length * 2);
+			int oldLength = positions.length;
+			positions = Arrays.copyOf(positions, length);
+			Arrays.fill(positions, oldLength, length, -1);
+			elements = Arrays.copyOf(elements, length);
+		}
+		if(positions[element] >= 0)
+			return;
+		elements[size] = element;
+		positions[element] = size++;
+	}
+
+	/**
+	 * Remove an element (nothing is done if it is not in the set)
+	 * @param element
+	 */
+	void remove(int element) {
+		if(!contains(element))
+			return;
+		int position = positions[element];
+		int last = elements[--size];
+		elements[position] = last;
+		positions[last] = position;
+		positions[element] = -1;
+	}
+
+	/**
+	 * Is the element in the set ?
+	 * @param element
+	 * @return true if the element is in the set, false otherwise
+	 */
+	boolean contains(int element) {
+		return element < positions.length && positions[element] >= 0;
+	}
+
+	/**
+	 * Get the element of a rank
+	 * @param rank (0..size-1)
+	 * @return element
+	 */
+	int get(int rank) {
+		return elements[rank];
+	}
+
+	/**
+	 * Get the size of the set
+	 * @return size
+	 */
+	int size() {
+		return size;
+	}
+}
@@ -2,53 +2,54 @@ package model;
 
 import algorithm.operator.Operator;
 
-import java.util.List;
-
 /**
- * Neighbor class : contains all the information about a neighbor
+ * Neighbor class : describes a move of an operator on a solution (primitive fields only)
+ * <p>
+ * The vehicles are indexes in the vehicles of the solution and the positions are positions in their routes
+ * (their meaning depends on the operator). The move is only applied when executed by its operator.
  * @author Julian DEGUT
  */
 public class Neighbor {
 
 	private final Operator operator;
-	private final List<Vehicle> vehicles;
-	private final List<Vehicle> newVehicles;
-	private final List<Client> clients;
-	private final List<Integer> indexes;
+	private final int vehicle1;
+	private final int vehicle2;
+	private final int position1;
+	private final int position2;
+	private final int position3;
+	private final int position4;
+	private final double delta;
 	private final double cost;
 
-	/**
-	 * Default Constructor
-	 */
-	public Neighbor() {
-		this.operator = null;
-		this.vehicles = null;
-		this.newVehicles = null;
-		this.clients = null;
-		this.indexes = null;
-		this.cost = 0;
-	}
-
 	/**
 	 * Constructor
 	 * @param operator
-	 * @param vehicles
-	 * @param newVehicles
-	 * @param clients
-	 * @param indexes
-	 * @param cost
+	 * @param vehicle1 (index in the solution)
+	 * @param vehicle2 (index in the solution, -1 for intra moves)
+	 * @param position1
+	 * @param position2
+	 * @param position3
+	 * @param position4
+	 * @param delta (cost change of the move)
+	 * @param cost (cost of the solution after the move)
 	 */
 	public Neighbor(Operator operator,
-					List<Vehicle> vehicles,
-					List<Vehicle> newVehicles,
-					List<Client> clients,
-					List<Integer> indexes,
+					int vehicle1,
+					int vehicle2,
+					int position1,
+					int position2,
+					int position3,
+					int position4,
+					double delta,
 					double cost) {
 		this.operator = operator;
-		this.vehicles = vehicles;
-		this.newVehicles = newVehicles;
-		this.clients = clients;
-		this.indexes = indexes;
+		this.vehicle1 = vehicle1;
+		this.vehicle2 = vehicle2;
+		this.position1 = position1;
+		this.position2 = position2;
+		this.position3 = position3;
+		this.position4 = position4;
+		this.delta = delta;
 		this.cost = cost;
 	}
 
@@ -61,35 +62,59 @@ public class Neighbor {
 	}
 
 	/**
-	 * Get the routes
-	 * @return routes
+	 * Get the first vehicle (index in the solution)
+	 * @return vehicle1
+	 */
+	public int getVehicle1() {
+		return vehicle1;
+	}
+
+	/**
+	 * Get the second vehicle (index in the solution, -1 for intra moves)
+	 * @return vehicle2
+	 */
+	public int getVehicle2() {
+		return vehicle2;
+	}
+
+	/**
+	 * Get the first position
+	 * @return position1
+	 */
+	public int getPosition1() {
+		return position1;
+	}
+
+	/**
+	 * Get the second position
+	 * @return position2
 	 */
-	public List<Vehicle> getVehicles() {
-		return vehicles;
+	public int getPosition2() {
+		return position2;
 	}
 
 	/**
-	 * Get the new routes
-	 * @return newRoutes
+	 * Get the third position
+	 * @return position3
 	 */
-	public List<Vehicle> getNewVehicles() {
-		return newVehicles;
+	public int getPosition3() {
+		return position3;
 	}
 
 	/**
-	 * Get the clients
-	 * @return clients
+	 * Get the fourth position
+	 * @return position4
 	 */
-	public List<Client> getClients() {
-		return clients;
+	public int getPosition4() {
+		return position4;
 	}
 
 	/**
-	 * Get the indexes
-	 * @return indexes
+	 * Get the cost change of the move
+	 * @return delta
 	 */
-	public List<Integer> getIndexes() {
-		return indexes;
+	public double getDelta() {
+		return delta;
 	}
 
 	/**
@@ -106,21 +131,8 @@ public class Neighbor {
 	 */
 	@Override
 	public String toString() {
-		String routes = "";
-		String clients = "";
-		if(this.vehicles != null)
-			routes = this.vehicles.stream()
-					.map(Vehicle::getId)
-					.map(String::valueOf)
-					.reduce((s1, s2) -> s1 + "/" + s2)
-					.orElse("");
-		if(this.clients != null)
-			clients = this.clients.stream()
-					.map(Client::getId)
-					.map(String::valueOf)
-					.reduce((s1, s2) -> s1 + "/" + s2)
-					.orElse("");
+		String routes = vehicle2 < 0 ? String.valueOf(vehicle1) : vehicle1 + "/" + vehicle2;
 		return "[operator=" + operator + ", vehicles=" + routes + "]";
 	}
 
-}
\ No newline at end of file
+}
@@ -3,17 +3,32 @@ package model;
 import data.Data;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.random.RandomGenerator;
 
 /**
  * Solution class : contains all the information about a solution
+ * <p>
+ * The solution keeps a lookup table giving the vehicle and the position of each client, its total distance
+ * and the sets of vehicles having at least 1..MAX_SIZE_CLASS clients (to draw them uniformly in constant time),
+ * all updated by its vehicles each time their route changes.
  * @author Julian DEGUT
  */
 public class Solution {
 
+	/**
+	 * Maximum minimal number of clients for which the vehicles can be drawn
+	 */
+	public static final int MAX_SIZE_CLASS = 4;
 	private final Data data;
 	private final List<Vehicle> vehicles;
+	private final List<Vehicle> vehiclesView;
 	private final List<Vertex> vertices;
+	private final Vehicle[] vehicleOf;
+	private final int[] positionOf;
+	private final IndexedSet[] sizeClasses;
+	private double totalDistance;
 
 	/**
 	 * Constructor : creates a solution from a data and a list of vehicles
@@ -22,8 +37,51 @@ public class Solution {
 	 */
 	public Solution(Data data, List<Vehicle> vehicles) {
 		this.data = data;
-		this.vehicles = vehicles;
-		vertices = new ArrayList<>(){{ add(data.getDepot()); addAll(data.getClients()); }};
+		this.vehicles = new ArrayList<>(vehicles);
+		this.vehiclesView = Collections.unmodifiableList(this.vehicles);
+		this.vertices = data.getVertices();
+		this.vehicleOf = new Vehicle[data.getNbVertices()];
+		this.positionOf = new int[data.getNbVertices()];
+		this.sizeClasses = new IndexedSet[MAX_SIZE_CLASS + 1];
+		for(int i = 0; i <= MAX_SIZE_CLASS; i++)
+			this.sizeClasses[i] = new IndexedSet(vehicles.size());
+		this.totalDistance = 0;
+		for(int i = 0; i < this.vehicles.size(); i++) {
+			Vehicle vehicle = this.vehicles.get(i);
+			vehicle.solution = this;
+			vehicle.index = i;
+			update(vehicle, 0);
+		}
+	}
+
+	/**
+	 * Update the lookup table of the clients of a vehicle, the total distance and the size classes
+	 * (called by the vehicle when its route changes)
+	 * @param vehicle
+	 * @param oldDistance (distance of the vehicle before the change)
+	 */
+	void update(Vehicle vehicle, double oldDistance) {
+		totalDistance += vehicle.getDistance() - oldDistance;
+		updateSizeClasses(vehicle.index, vehicle.size());
+		for(int position = 1; position <= vehicle.size(); position++) {
+			int client = vehicle.getVertex(position);
+			vehicleOf[client] = vehicle;
+			positionOf[client] = position;
+		}
+	}
+
+	/**
+	 * Update the size classes of a vehicle
+	 * @param index (index of the vehicle)
+	 * @param size (number of clients, -1 to remove the vehicle from all the classes)
+	 */
+	private void updateSizeClasses(int index, int size) {
+		for(int i = 0; i <= MAX_SIZE_CLASS; i++) {
+			if(size >= i)
+				sizeClasses[i].add(index);
+			else
+				sizeClasses[i].remove(index);
+		}
 	}
 
 	/**
@@ -31,9 +89,15 @@ public class Solution {
 	 * @return totalDistance
 	 */
 	public double getTotalDistance() {
-		return vehicles.stream()
-				.mapToDouble(Vehicle::getDistance)
-				.sum();
+		return totalDistance;
+	}
+
+	/**
+	 * Get the number of vehicles of the solution
+	 * @return nbVehicles
+	 */
+	public int getNbVehicles() {
+		return vehicles.size();
 	}
 
 	/**
@@ -45,11 +109,116 @@ public class Solution {
 	}
 
 	/**
-	 * Get vehicles
+	 * Get vehicles (read-only, use addVehicle & removeVehicle)
 	 * @return vehicles
 	 */
 	public List<Vehicle> getVehicles() {
-		return vehicles;
+		return vehiclesView;
+	}
+
+	/**
+	 * Add a vehicle to the solution
+	 * @param vehicle
+	 */
+	public void addVehicle(Vehicle vehicle) {
+		vehicles.add(vehicle);
+		vehicle.solution = this;
+		vehicle.index = vehicles.size() - 1;
+		update(vehicle, 0);
+	}
+
+	/**
+	 * Remove a vehicle from the solution (its clients must have been moved to other vehicles)
+	 * The last vehicle takes its index.
+	 * @param vehicle
+	 */
+	public void removeVehicle(Vehicle vehicle) {
+		if(vehicle.solution != this)
+			return;
+		int index = vehicle.index;
+		int last = vehicles.size() - 1;
+		updateSizeClasses(index, -1);
+		if(index != last) {
+			Vehicle moved = vehicles.get(last);
+			updateSizeClasses(last, -1);
+			vehicles.set(index, moved);
+			moved.index = index;
+			updateSizeClasses(index, moved.size());
+		}
+		vehicles.remove(last);
+		totalDistance -= vehicle.getDistance();
+		vehicle.solution = null;
+		vehicle.index = -1;
+	}
+
+	/**
+	 * Draw uniformly a vehicle having at least a number of clients
+	 * @param random
+	 * @param minClients (0..MAX_SIZE_CLASS)
+	 * @return index of the vehicle, -1 if none
+	 */
+	public int getRandomVehicle(RandomGenerator random, int minClients) {
+		IndexedSet vehicles = sizeClasses[minClients];
+		if(vehicles.size() == 0)
+			return -1;
+		return vehicles.get(random.nextInt(vehicles.size()));
+	}
+
+	/**
+	 * Draw uniformly a vehicle having at least a number of clients, excluding the given one
+	 * @param random
+	 * @param minClients (0..MAX_SIZE_CLASS)
+	 * @param exclude (index of the vehicle excluded)
+	 * @return index of the vehicle, -1 if none
+	 */
+	public int getRandomVehicle(RandomGenerator random, int minClients, int exclude) {
+		IndexedSet vehicles = sizeClasses[minClients];
+		if(!vehicles.contains(exclude))
+			return getRandomVehicle(random, minClients);
+		if(vehicles.size() < 2)
+			return -1;
+		int vehicle = vehicles.get(random.nextInt(vehicles.size() - 1));
+		return vehicle == exclude ? vehicles.get(vehicles.size() - 1) : vehicle;
+	}
+
+	/**
+	 * Get the vehicle serving a client
+	 * @param client (dense index)
+	 * @return vehicle
+	 */
+	public Vehicle getVehicle(int client) {
+		return vehicleOf[client];
+	}
+
+	/**
+	 * Get the position of a client in its vehicle
+	 * @param client (dense index)
+	 * @return position (1..size)
+	 */
+	public int getPosition(int client) {
+		return positionOf[client];
+	}
+
+	/**
+	 * Test if the lookup table of the clients & the total distance agree with the routes
+	 * (each client visited once, at the vehicle & position given by getVehicle & getPosition)
+	 * @return true if the solution is consistent
+	 */
+	public boolean isConsistent() {
+		boolean[] visited = new boolean[vehicleOf.length];
+		int nbVisited = 0;
+		double distance = 0;
+		for(Vehicle vehicle : vehicles) {
+			for(int position = 1; position <= vehicle.size(); position++) {
+				int client = vehicle.getVertex(position);
+				if(visited[client] || vehicleOf[client] != vehicle || positionOf[client] != position)
+					return false;
+				visited[client] = true;
+				nbVisited++;
+			}
+			distance += vehicle.getDistance();
+		}
+		return nbVisited == vehicleOf.length - 1 && Math.abs(distance - totalDistance) <= 1e-6 * Math.max(1, distance);
 	}
 
 	/**
@@ -65,7 +234,7 @@ public class Solution {
 	 * @return solution
 	 */
 	public Solution copy() {
-		List<Vehicle> vehicles = new ArrayList<>();
+		List<Vehicle> vehicles = new ArrayList<>(this.vehicles.size());
 		for(Vehicle vehicle : this.vehicles) {
 			vehicles.add(vehicle.copy());
 		}
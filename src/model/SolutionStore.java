@@ -0,0 +1,252 @@
+package model;
+
+import data.Data;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SolutionStore class : directory keeping the best known solution of each instance, to warm-start the next searches
+ * <p>
+ * The solutions are stored in text files named after the content hash of their data (see Data.getHash), so a
+ * renamed or reformatted instance finds its solution back. A file gives the cost, the number of vehicles, the
+ * algorithm & the seed of the run which found the solution, then one route per line (dense indices of the clients,
+ * in the order of the file of the instance). A solution only replaces a stored one if it is shorter, and the file
+ * is written in a temporary file renamed at the end, so the readers never see a partial file. The comparison &
+ * the replacement hold a lock on a file of the instance (hash.lock), so several processes can share the store.
+ * @author Julian DEGUT
+ */
+public class SolutionStore {
+
+	/**
+	 * Seed recorded for a solution found without any run seed (deterministic solver)
+	 */
+	public static final long NO_SEED = Long.MIN_VALUE;
+	private static final String EXTENSION = ".sol";
+	private static final String LOCK_EXTENSION = ".lock";
+	private static final Object LOCK = new Object(); // a file lock is held by the whole JVM, the threads wait here
+	private static final double MIN_IMPROVEMENT = 1e-9;
+	private final File directory;
+
+	/**
+	 * Constructor
+	 * @param directory (created at the first save)
+	 */
+	public SolutionStore(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Entry class : a stored solution & the run which found it
+	 */
+	public static class Entry {
+		private final int[][] routes;
+		private final double cost;
+		private final String algorithm;
+		private final long seed;
+
+		/**
+		 * Constructor
+		 * @param routes (clients of each vehicle)
+		 * @param cost
+		 * @param algorithm
+		 * @param seed
+		 */
+		Entry(int[][] routes, double cost, String algorithm, long seed) {
+			this.routes = routes;
+			this.cost = cost;
+			this.algorithm = algorithm;
+			this.seed = seed;
+		}
+
+		/**
+		 * Get the routes (clients of each vehicle, dense indices)
+		 * @return routes
+		 */
+		public int[][] getRoutes() {
+			return Arrays.stream(routes).map(int[]::clone).toArray(int[][]::new);
+		}
+
+		/**
+		 * Get the cost recorded with the solution
+		 * @return cost
+		 */
+		public double getCost() {
+			return cost;
+		}
+
+		/**
+		 * Get the number of vehicles
+		 * @return nbVehicles
+		 */
+		public int getNbVehicles() {
+			return routes.length;
+		}
+
+		/**
+		 * Get the algorithm which found the solution
+		 * @return algorithm
+		 */
+		public String getAlgorithm() {
+			return algorithm;
+		}
+
+		/**
+		 * Get the seed of the run which found the solution
+		 * @return seed (NO_SEED if the solver has none)
+		 */
+		public long getSeed() {
+			return seed;
+		}
+	}
+
+	/**
+	 * Get the stored entry of an instance
+	 * @param data
+	 * @return entry, null if the instance has no stored solution (or if its file is unreadable)
+	 */
+	public Entry getEntry(Data data) {
+		File file = getFile(data);
+		if(!file.isFile())
+			return null;
+		double cost = Double.NaN;
+		String algorithm = "unknown";
+		long seed = NO_SEED;
+		List<int[]> routes = new ArrayList<>();
+		try(BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while((line = reader.readLine()) != null) {
+				String[] split = line.trim().split("\\s+", 2);
+				switch(split[0]) {
+					case "COST" -> cost = Double.parseDouble(split[1]);
+					case "ALGORITHM" -> algorithm = split[1];
+					case "SEED" -> seed = Long.parseLong(split[1]);
+					case "ROUTE" -> {
+						if(split.length > 1) // an empty vehicle is not kept
+							routes.add(Arrays.stream(split[1].split("\\s+")).mapToInt(Integer::parseInt).toArray());
+					}
+				}
+			}
+		} catch(IOException | RuntimeException e) {
+			System.err.println("Error reading stored solution: " + file.getAbsolutePath() + " (" + e + ")");
+			return null;
+		}
+		if(routes.isEmpty())
+			return null;
+		return new Entry(routes.toArray(new int[0][]), cost, algorithm, seed);
+	}
+
+	/**
+	 * Load the best known solution of an instance
+	 * @param data
+	 * @return solution, null if none is stored or if the stored one is not a feasible solution of the data
+	 */
+	public Solution load(Data data) {
+		Entry entry = getEntry(data);
+		if(entry == null)
+			return null;
+		boolean[] visited = new boolean[data.getNbVertices()];
+		int nbVisited = 0;
+		List<Vehicle> vehicles = new ArrayList<>(entry.routes.length);
+		for(int[] route : entry.routes) {
+			for(int client : route) {
+				if(client <= 0 || client >= visited.length || visited[client])
+					return invalid(data);
+				visited[client] = true;
+				nbVisited++;
+			}
+			Vehicle vehicle = new Vehicle(data, route);
+			if(!vehicle.isValid())
+				return invalid(data);
+			vehicles.add(vehicle);
+		}
+		if(nbVisited != data.getNbVertices() - 1)
+			return invalid(data);
+		return new Solution(data, vehicles);
+	}
+
+	/**
+	 * Save a solution if it is better than the stored one
+	 * @param solution (feasible)
+	 * @param algorithm (name of the algorithm which found it)
+	 * @param seed (of the run which found it, NO_SEED if the solver has none)
+	 * @return true if the solution has been stored
+	 */
+	public boolean save(Solution solution, String algorithm, long seed) {
+		Data data = solution.getData();
+		File file = getFile(data);
+		Path temporary = null;
+		synchronized(LOCK) {
+			try {
+				Files.createDirectories(directory.toPath());
+				try(FileChannel channel = FileChannel.open(new File(directory, data.getHash() + LOCK_EXTENSION).toPath(),
+						StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+					channel.lock(); // released when the channel is closed
+					Entry stored = getEntry(data);
+					if(stored != null && !Double.isNaN(stored.cost) && !(solution.getTotalDistance() < stored.cost - MIN_IMPROVEMENT))
+						return false;
+					temporary = Files.createTempFile(directory.toPath(), data.getHash(), ".tmp");
+					try(PrintWriter writer = new PrintWriter(Files.newBufferedWriter(temporary, StandardCharsets.UTF_8))) {
+						writer.println("NAME " + data.getName());
+						writer.println("COST " + solution.getTotalDistance());
+						writer.println("VEHICLES " + solution.getNbVehicles());
+						writer.println("ALGORITHM " + algorithm);
+						writer.println("SEED " + seed);
+						for(Vehicle vehicle : solution.getVehicles()) {
+							StringBuilder route = new StringBuilder("ROUTE");
+							for(int client : vehicle.toArray())
+								route.append(' ').append(client);
+							writer.println(route);
+						}
+					}
+					try {
+						Files.move(temporary, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+					} catch(AtomicMoveNotSupportedException e) {
+						Files.move(temporary, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+					}
+					return true;
+				}
+			} catch(IOException e) {
+				System.err.println("Error writing stored solution: " + file.getAbsolutePath() + " (" + e.getMessage() + ")");
+				try {
+					if(temporary != null)
+						Files.deleteIfExists(temporary);
+				} catch(IOException ignored) {
+					// nothing more to clean
+				}
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Get the file of an instance
+	 * @param data
+	 * @return file
+	 */
+	private File getFile(Data data) {
+		return new File(directory, data.getHash() + EXTENSION);
+	}
+
+	/**
+	 * Report an invalid stored solution
+	 * @param data
+	 * @return null
+	 */
+	private Solution invalid(Data data) {
+		System.err.println("Stored solution ignored (infeasible for the data): " + getFile(data).getAbsolutePath());
+		return null;
+	}
+}
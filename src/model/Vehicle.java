@@ -1,98 +1,335 @@
 package model;
 
+import data.Data;
+
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Vehicle class : contains all the information about a vehicle
+ * <p>
+ * The route is stored as an array of vertex indexes (positions 0 and size+1 are the depot),
+ * with forward and backward data for each position : earliest service start, latest service start,
+ * cumulative load and cumulative distance.
+ * A route made of a prefix of a route, some inserted clients and a suffix of a route can then be
+ * checked and costed without rebuilding it (constant time for the prefix and the suffix).
  * @author Julian DEGUT
  */
 public class Vehicle {
 
-	private static int idCounter = 0;
+	/**
+	 * Value returned when a route is not feasible
+	 */
+	public static final double INFEASIBLE = Double.POSITIVE_INFINITY;
+	/**
+	 * Tolerance of the time windows (rounding of the travel times)
+	 */
+	public static final double EPSILON = 1e-9;
+	private static final AtomicInteger idCounter = new AtomicInteger();
 	private final int id;
+	private final Data data;
 	private final Depot depot;
-	private final List<Client> clients;
 	private double distance;
 	private double time;
 	private final int maxCapacity;
 	private boolean valid;
+	private int size;
+	private int[] route;
+	private double[] earliest;
+	private double[] latest;
+	private int[] load;
+	private double[] cumulDistance;
+	Solution solution;
+	int index;
 
 	/**
-	 * Constructor : creates a vehicle from a depot and a max capacity
-	 * @param depot
-	 * @param maxCapacity
+	 * Constructor : creates an empty vehicle from the data (depot and max capacity)
+	 * @param data
 	 */
-	public Vehicle(Depot depot, int maxCapacity) {
-		this.id = idCounter++;
-		this.depot = depot;
-		this.clients = new LinkedList<>();
-		this.distance = 0;
-		this.time = 0;
-		this.maxCapacity = maxCapacity;
-		this.valid = update();
+	public Vehicle(Data data) {
+		this(data, new int[0]);
 	}
 
 	/**
-	 * Constructor : creates a vehicle from a depot, a list of clients and a max capacity
-	 * @param depot
+	 * Constructor : creates a vehicle from the data (depot and max capacity) and a list of clients
+	 * @param data
 	 * @param clients
-	 * @param maxCapacity
 	 */
-	public Vehicle(Depot depot, List<Client> clients, int maxCapacity) {
-		this.id = idCounter++;
-		this.depot = depot;
-		this.clients = clients;
+	public Vehicle(Data data, List<Client> clients) {
+		this(data, clients.stream().mapToInt(Client::getIndex).toArray());
+	}
+
+	/**
+	 * Constructor : creates a vehicle from the data (depot and max capacity) and an array of clients
+	 * @param data
+	 * @param clients (dense indexes)
+	 */
+	public Vehicle(Data data, int[] clients) {
+		this.id = idCounter.getAndIncrement();
+		this.data = data;
+		this.depot = data.getDepot();
 		this.distance = 0;
 		this.time = 0;
-		this.maxCapacity = maxCapacity;
+		this.maxCapacity = data.getMaxQuantity();
+		this.size = clients.length;
+		allocate(size + 2);
+		route[0] = depot.getIndex();
+		System.arraycopy(clients, 0, route, 1, size);
+		route[size + 1] = depot.getIndex();
 		this.valid = update();
 	}
 
+	/**
+	 * Copy constructor : copies the route and its data without evaluating it again
+	 * @param vehicle
+	 */
+	private Vehicle(Vehicle vehicle) {
+		this.id = idCounter.getAndIncrement();
+		this.data = vehicle.data;
+		this.depot = vehicle.depot;
+		this.distance = vehicle.distance;
+		this.time = vehicle.time;
+		this.maxCapacity = vehicle.maxCapacity;
+		this.valid = vehicle.valid;
+		this.size = vehicle.size;
+		this.route = Arrays.copyOf(vehicle.route, size + 2);
+		this.earliest = Arrays.copyOf(vehicle.earliest, size + 2);
+		this.latest = Arrays.copyOf(vehicle.latest, size + 2);
+		this.load = Arrays.copyOf(vehicle.load, size + 2);
+		this.cumulDistance = Arrays.copyOf(vehicle.cumulDistance, size + 2);
+	}
+
+	/**
+	 * Allocate the arrays of the route (the route is kept)
+	 * @param length (number of positions, depots included)
+	 */
+	private void allocate(int length) {
+		route = route == null ? new int[length] : Arrays.copyOf(route, length);
+		earliest = new double[length];
+		latest = new double[length];
+		load = new int[length];
+		cumulDistance = new double[length];
+	}
+
 	/**
 	 * Add a client to the vehicle
 	 * @param client to add
 	 * @return true if the vehicle is valid after adding the client, false otherwise
 	 */
 	public boolean addClient(Client client) {
-		clients.add(client);
-		boolean valid = update();
-		if(valid) {
-			this.valid = true;
+		if(valid && getInsertionCost(client.getIndex(), size + 1) == INFEASIBLE)
+			return false;
+		insert(size + 1, client.getIndex());
+		if(valid)
 			return true;
-		}
-		clients.remove(client);
+		remove(size);
 		return false;
 	}
 
 	/**
-	 * Update the information of the vehicle (distance, time, valid)
+	 * Insert a vertex before the given position
+	 * @param position (1..size+1)
+	 * @param vertex (dense index)
+	 * @return true if the vehicle is valid, false otherwise
+	 */
+	public boolean insert(int position, int vertex) {
+		if(size + 3 > route.length)
+			allocate(route.length * 2);
+		System.arraycopy(route, position, route, position + 1, size + 2 - position);
+		route[position] = vertex;
+		size++;
+		valid = update();
+		return valid;
+	}
+
+	/**
+	 * Remove the vertex at the given position
+	 * @param position (1..size)
+	 * @return true if the vehicle is valid, false otherwise
+	 */
+	public boolean remove(int position) {
+		return replace(position, position, null, 0, 0);
+	}
+
+	/**
+	 * Set the vertex at the given position
+	 * @param position (1..size)
+	 * @param vertex (dense index)
+	 * @return true if the vehicle is valid, false otherwise
+	 */
+	public boolean set(int position, int vertex) {
+		route[position] = vertex;
+		valid = update();
+		return valid;
+	}
+
+	/**
+	 * Swap the vertices at two positions
+	 * @param position1 (1..size)
+	 * @param position2 (1..size)
+	 * @return true if the vehicle is valid, false otherwise
+	 */
+	public boolean swap(int position1, int position2) {
+		int tmp = route[position1];
+		route[position1] = route[position2];
+		route[position2] = tmp;
+		valid = update();
+		return valid;
+	}
+
+	/**
+	 * Move the vertex at a position to another position (the vertices in between are shifted)
+	 * @param from (1..size)
+	 * @param to (1..size)
+	 * @return true if the vehicle is valid, false otherwise
+	 */
+	public boolean move(int from, int to) {
+		int vertex = route[from];
+		if(from < to)
+			System.arraycopy(route, from + 1, route, from, to - from);
+		else
+			System.arraycopy(route, to, route, to + 1, from - to);
+		route[to] = vertex;
+		valid = update();
+		return valid;
+	}
+
+	/**
+	 * Reverse the vertices between two positions (included)
+	 * @param from (1..size)
+	 * @param to (from..size)
+	 * @return true if the vehicle is valid, false otherwise
+	 */
+	public boolean reverse(int from, int to) {
+		for(int i = from, j = to; i < j; i++, j--) {
+			int tmp = route[i];
+			route[i] = route[j];
+			route[j] = tmp;
+		}
+		valid = update();
+		return valid;
+	}
+
+	/**
+	 * Replace the vertices between two positions (included) by other vertices
+	 * (to = from - 1 inserts the vertices before the position from)
+	 * @param from (1..size+1)
+	 * @param to (from-1..size)
+	 * @param vertices (dense indexes)
+	 * @param offset in the vertices
+	 * @param length number of vertices to copy
+	 * @return true if the vehicle is valid, false otherwise
+	 */
+	public boolean replace(int from, int to, int[] vertices, int offset, int length) {
+		int newSize = size - (to - from + 1) + length;
+		if(newSize + 2 > route.length)
+			allocate(Math.max(newSize + 2, route.length * 2));
+		System.arraycopy(route, to + 1, route, from + length, size + 1 - to);
+		if(length > 0)
+			System.arraycopy(vertices, offset, route, from, length);
+		size = newSize;
+		valid = update();
+		return valid;
+	}
+
+	/**
+	 * Update the information of the vehicle (forward & backward data, distance, time, valid)
 	 * @return true if the vehicle is valid, false otherwise
 	 */
 	private boolean update() {
-		double tempTime = 0;
-		double tempDistance = 0;
-		int tempCapacity = 0;
-		Vertex source = depot;
-
-		for(Client c : clients) {
-			tempDistance += source.getDistance(c);
-			tempTime += source.getDistance(c);
-			if(tempTime > c.getDueTime() || tempCapacity + c.getDemand() > maxCapacity)
-				return false;
-			tempTime = Math.max(tempTime, c.getReadyTime()) + c.getServiceTime();
-			tempCapacity -= c.getDemand();
-			source = c;
+		int last = size + 1;
+		earliest[0] = depot.getReadyTime();
+		load[0] = 0;
+		cumulDistance[0] = 0;
+		boolean feasible = true;
+		for(int i = 1; i <= last; i++) {
+			int previous = route[i - 1];
+			int current = route[i];
+			double arrival = earliest[i - 1] + data.getServiceTime(previous) + data.getTravelTime(previous, current);
+			if(arrival > data.getDueTime(current) + EPSILON)
+				feasible = false;
+			earliest[i] = Math.max(arrival, data.getReadyTime(current));
+			load[i] = load[i - 1] + data.getDemand(current);
+			cumulDistance[i] = cumulDistance[i - 1] + data.getDistance(previous, current);
 		}
 
-		tempDistance += source.getDistance(depot);
-		if(tempTime + source.getDistance(depot) <= depot.getDueTime() && maxCapacity - tempCapacity >= 0) {
-			this.distance = tempDistance;
-			this.time = tempTime;
-			return true;
+		latest[last] = depot.getDueTime();
+		for(int i = last - 1; i >= 0; i--) {
+			int current = route[i];
+			latest[i] = Math.min(data.getDueTime(current),
+					latest[i + 1] - data.getTravelTime(current, route[i + 1]) - data.getServiceTime(current));
 		}
-		return false;
+
+		double oldDistance = this.distance;
+		this.distance = cumulDistance[last];
+		this.time = earliest[last - 1] + data.getServiceTime(route[last - 1]);
+		if(solution != null)
+			solution.update(this, oldDistance);
+		return feasible && load[last] <= maxCapacity;
+	}
+
+	/**
+	 * Visit a vertex after leaving the previous one at the given time
+	 * @param data
+	 * @param previous (dense index)
+	 * @param departure from the previous vertex
+	 * @param vertex (dense index)
+	 * @return departure time from the vertex, INFEASIBLE if its due time is exceeded
+	 */
+	public static double visit(Data data, int previous, double departure, int vertex) {
+		double arrival = departure + data.getTravelTime(previous, vertex);
+		if(arrival > data.getDueTime(vertex) + EPSILON)
+			return INFEASIBLE;
+		return Math.max(arrival, data.getReadyTime(vertex)) + data.getServiceTime(vertex);
+	}
+
+	/**
+	 * Visit the vertices between two positions of the route (walked backward if from > to)
+	 * after leaving the previous vertex at the given time (linear in the length of the segment)
+	 * @param previous (dense index)
+	 * @param departure from the previous vertex
+	 * @param from position
+	 * @param to position
+	 * @return departure time from the last vertex of the segment, INFEASIBLE if a due time is exceeded
+	 */
+	public double visit(int previous, double departure, int from, int to) {
+		int step = from <= to ? 1 : -1;
+		for(int i = from; ; i += step) {
+			departure = visit(data, previous, departure, route[i]);
+			if(departure == INFEASIBLE || i == to)
+				return departure;
+			previous = route[i];
+		}
+	}
+
+	/**
+	 * Can the suffix of the route starting at the given position be reached at the given time ?
+	 * @param previous (dense index)
+	 * @param departure from the previous vertex
+	 * @param position (first position of the suffix)
+	 * @return true if the suffix stays feasible, false otherwise
+	 */
+	public boolean canReach(int previous, double departure, int position) {
+		return departure != INFEASIBLE && departure + data.getTravelTime(previous, route[position]) <= latest[position] + EPSILON;
+	}
+
+	/**
+	 * Get the cost of inserting a vertex before the given position (constant time)
+	 * @param vertex (dense index)
+	 * @param position (1..size+1)
+	 * @return distance added to the route, INFEASIBLE if the route would not be valid
+	 */
+	public double getInsertionCost(int vertex, int position) {
+		if(load[size + 1] + data.getDemand(vertex) > maxCapacity)
+			return INFEASIBLE;
+		int previous = route[position - 1];
+		double departure = visit(data, previous, getDeparture(position - 1), vertex);
+		if(!canReach(vertex, departure, position))
+			return INFEASIBLE;
+		return data.getDistance(previous, vertex) + data.getDistance(vertex, route[position]) - data.getDistance(previous, route[position]);
 	}
 
 	/**
@@ -103,6 +340,14 @@ public class Vehicle {
 		return id;
 	}
 
+	/**
+	 * Get the index of the vehicle in its solution
+	 * @return index, -1 if the vehicle is not in a solution
+	 */
+	public int getIndex() {
+		return solution == null ? -1 : index;
+	}
+
 	/**
 	 * Get the depot
 	 * @return depot
@@ -112,11 +357,48 @@ public class Vehicle {
 	}
 
 	/**
-	 * Get the clients
+	 * Get the clients (read-only view of the route, without the depots)
 	 * @return clients
 	 */
 	public List<Client> getClients() {
-		return clients;
+		return new AbstractList<>() {
+			@Override
+			public Client get(int index) {
+				return getClient(index + 1);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * Get the client at a position
+	 * @param position (1..size)
+	 * @return client
+	 */
+	public Client getClient(int position) {
+		return (Client) data.getVertices().get(route[position]);
+	}
+
+	/**
+	 * Get the clients as an array of dense indexes
+	 * @return clients
+	 */
+	public int[] toArray() {
+		return toArray(1, size);
+	}
+
+	/**
+	 * Get the vertices between two positions (included) as an array of dense indexes
+	 * @param from
+	 * @param to
+	 * @return vertices
+	 */
+	public int[] toArray(int from, int to) {
+		return Arrays.copyOfRange(route, from, to + 1);
 	}
 
 	/**
@@ -124,21 +406,97 @@ public class Vehicle {
 	 * @param clients
 	 */
 	public void setClients(List<Client> clients) {
-		this.clients.clear();
-		this.clients.addAll(clients);
-		this.valid = update();
+		int[] vertices = clients.stream().mapToInt(Client::getIndex).toArray();
+		replace(1, size, vertices, 0, vertices.length);
 	}
 
 	/**
-	 * Get the max capacity
-	 * @return max capacity
+	 * Get the vertices (depot, clients, depot)
+	 * @return vertices
 	 */
 	public List<Vertex> getVertices() {
-		return new ArrayList<>() {{
-			add(depot);
-			addAll(clients);
-			add(depot);
-		}};
+		List<Vertex> vertices = new ArrayList<>(size + 2);
+		for(int i = 0; i <= size + 1; i++)
+			vertices.add(data.getVertices().get(route[i]));
+		return vertices;
+	}
+
+	/**
+	 * Get the number of clients
+	 * @return size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the vertex at a position (0 and size+1 are the depot)
+	 * @param position
+	 * @return vertex (dense index)
+	 */
+	public int getVertex(int position) {
+		return route[position];
+	}
+
+	/**
+	 * Get the earliest departure time from a position
+	 * @param position
+	 * @return departure
+	 */
+	public double getDeparture(int position) {
+		return earliest[position] + data.getServiceTime(route[position]);
+	}
+
+	/**
+	 * Get the earliest service start time at a position
+	 * @param position
+	 * @return earliest
+	 */
+	public double getEarliest(int position) {
+		return earliest[position];
+	}
+
+	/**
+	 * Get the latest service start time at a position keeping the rest of the route feasible
+	 * @param position
+	 * @return latest
+	 */
+	public double getLatest(int position) {
+		return latest[position];
+	}
+
+	/**
+	 * Get the cumulative load from the depot to a position (included)
+	 * @param position
+	 * @return load
+	 */
+	public int getLoad(int position) {
+		return load[position];
+	}
+
+	/**
+	 * Get the total load of the vehicle
+	 * @return load
+	 */
+	public int getLoad() {
+		return load[size + 1];
+	}
+
+	/**
+	 * Get the cumulative distance from the depot to a position
+	 * @param position
+	 * @return distance
+	 */
+	public double getDistance(int position) {
+		return cumulDistance[position];
+	}
+
+	/**
+	 * Get the max capacity
+	 * @return maxCapacity
+	 */
+	public int getMaxCapacity() {
+		return maxCapacity;
 	}
 
 	/**
@@ -154,7 +512,6 @@ public class Vehicle {
 	 * @return true if the vehicle is valid, false otherwise
 	 */
 	public boolean isValid() {
-		this.valid = update();
 		return valid;
 	}
 
@@ -163,7 +520,7 @@ public class Vehicle {
 	 * @return a copy of the vehicle
 	 */
 	public Vehicle copy() {
-		return new Vehicle(depot, new ArrayList<>(clients), maxCapacity);
+		return new Vehicle(this);
 	}
 
 }
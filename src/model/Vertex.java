@@ -7,16 +7,19 @@ package model;
 public abstract class Vertex {
 	protected static int idCounter = 0;
 	protected final int id;
+	protected final int index;
 	protected final int x;
 	protected final int y;
 
 	/**
 	 * Constructor
+	 * @param index (dense index in the data : 0 for the depot, 1..n for the clients)
 	 * @param x
 	 * @param y
 	 */
-	public Vertex(int x, int y) {
+	public Vertex(int index, int x, int y) {
 		this.id = idCounter++;
+		this.index = index;
 		this.x = x;
 		this.y = y;
 	}
@@ -29,6 +32,14 @@ public abstract class Vertex {
 		return id;
 	}
 
+	/**
+	 * Get index (dense index used by the distance matrix of the data)
+	 * @return index
+	 */
+	public int getIndex() {
+		return index;
+	}
+
 	/**
 	 * Get x
 	 * @return x
@@ -47,6 +58,7 @@ public abstract class Vertex {
 
 	/**
 	 * Get the euclidean distance between two vertices
+	 * (only used to build the distance matrix, use Data.getDistance in the algorithms)
 	 * @param v
 	 * @return distance
 	 */